@@ -0,0 +1,98 @@
+package connect4;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks evaluating a batch of positions with each BatchEvaluator, on one
+ * thread, in positions per microsecond.  The batch holds the corpus positions
+ * (see Corpus) and every position up to 3 moves on from them, each scored for
+ * both players, repeated to fill it.  The benchmark JVM runs with the vector
+ * module, so "vector" is the SIMD evaluator wherever the machine has SIMD
+ * registers (it is named in the setup output).
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class BatchEvalBenchmark {
+	// Positions in the batch
+	private static final int BATCH = 4096;
+
+	// Evaluator to time
+	@Param({"scalar", "vector"})
+	private String evaluator;
+
+	// Instance variables
+	private BatchEvaluator batchEvaluator;	// The evaluator
+	private PositionBatch batch;			// The positions
+	private int [] scores;					// Their scores
+
+	/**
+	 * Sets the evaluator and the batch up
+	 */
+	@Setup
+	public void setUp() {
+		batchEvaluator = "vector".equals(evaluator) ? BatchEvaluator.create() : BatchEvaluator.scalar();
+		System.out.println("Evaluator: " + batchEvaluator);
+		PositionBatch positions = new PositionBatch(BATCH);
+		for (Connect4Game game : Corpus.games(new Player[] {new ComputerConnect4Player("A", 1), new ComputerConnect4Player("B", 1)})) {
+			BatchEvalBenchmark.addPositions(game, 3, positions);
+		}
+		batch = new PositionBatch(BATCH);
+		for (int i = 0; i < BATCH; i++) {
+			int position = i % positions.size();
+			batch.add(positions.getMine()[position], positions.getTheirs()[position]);
+		}
+		scores = new int[BATCH];
+	}
+
+	/**
+	 * Adds a position and every position some moves on from it, for both players
+	 * @param Connect4Game game (moves are made and taken back on it)
+	 * @param int depth (moves to look on)
+	 * @param PositionBatch positions (gets the positions)
+	 */
+	private static void addPositions(Connect4Game game, int depth, PositionBatch positions) {
+		positions.add(game, 0);
+		positions.add(game, 1);
+		if (depth == 0 || game.gameIsOver()) {
+			return;
+		}
+		for (int col = 0; col < Connect4State.COLS; col++) {
+			if (game.isValidMove(col)) {
+				game.makeMove(col);
+				BatchEvalBenchmark.addPositions(game, depth - 1, positions);
+				game.undoMove(col);
+			}
+		}
+	}
+
+	/**
+	 * Evaluates the batch
+	 * @return int [] scores
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int[] evaluate() {
+		batchEvaluator.evaluate(batch.getMine(), batch.getTheirs(), BATCH, scores);
+		return scores;
+	}
+} // This brace } ends the BatchEvalBenchmark Class
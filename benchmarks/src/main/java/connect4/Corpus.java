@@ -0,0 +1,54 @@
+package connect4;
+
+/**
+ * The positions every benchmark runs on: the empty board and positions from
+ * engine games at several stages, from the opening to the late middlegame,
+ * given as the moves (column digits) that lead to them.  Changing the corpus
+ * makes results incomparable with older runs, so add positions only with a
+ * new baseline.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+final class Corpus {
+	// Moves to each position
+	static final String [] MOVES = {
+		"",
+		"3542563",
+		"354256343",
+		"3441014114004",
+		"36410305005533551",
+		"133105455503113300445",
+		"3441010110646334403341",
+		"3641031551311355244443",
+	};
+
+	/**
+	 * Not created: only holds the corpus
+	 */
+	private Corpus() {
+	}
+
+	/**
+	 * Sets up every position of the corpus
+	 * @param Player [] players (the players of the games)
+	 * @return Connect4Game [] games
+	 * @throws IllegalStateException if a move is not valid or a game is over
+	 */
+	static Connect4Game[] games(Player [] players) {
+		Connect4Game[] games = new Connect4Game[MOVES.length];
+		for (int i = 0; i < MOVES.length; i++) {
+			games[i] = new Connect4Game(0, players, new NullConnect4View());
+			for (char digit : MOVES[i].toCharArray()) {
+				if (games[i].gameIsOver() || !games[i].isValidMove(digit - '0')) {
+					throw new IllegalStateException("Corpus position " + MOVES[i] + " cannot be played");
+				}
+				games[i].makeMove(digit - '0');
+			}
+			if (games[i].gameIsOver()) {
+				throw new IllegalStateException("Corpus position " + MOVES[i] + " is over");
+			}
+		}
+		return games;
+	}
+} // This brace } ends the Corpus Class
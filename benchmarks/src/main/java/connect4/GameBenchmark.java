@@ -0,0 +1,126 @@
+package connect4;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the game state operations the search makes at every node,
+ * each run over every position of the corpus (see Corpus) so the numbers do
+ * not depend on one lucky board.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+	// Instance variables
+	private Connect4Game [] games;		// The corpus positions
+	private int [][] moves;				// Valid columns of each position
+
+	/**
+	 * Sets the corpus positions up
+	 */
+	@Setup
+	public void setUp() {
+		games = Corpus.games(new Player[] {new ComputerConnect4Player("A", 1), new ComputerConnect4Player("B", 1)});
+		moves = new int[games.length][];
+		for (int i = 0; i < games.length; i++) {
+			int count = 0;
+			int [] valid = new int[Connect4State.COLS];
+			for (int col = 0; col < Connect4State.COLS; col++) {
+				if (games[i].isValidMove(col)) {
+					valid[count++] = col;
+				}
+			}
+			moves[i] = java.util.Arrays.copyOf(valid, count);
+		}
+	}
+
+	/**
+	 * Makes and takes back every valid move of every position (makeMove cannot
+	 * be measured alone without the board filling up)
+	 * @param Blackhole blackhole
+	 */
+	@Benchmark
+	public void makeMove(Blackhole blackhole) {
+		for (int i = 0; i < games.length; i++) {
+			Connect4Game game = games[i];
+			for (int col : moves[i]) {
+				game.makeMove(col);
+				blackhole.consume(game.getHash());
+				game.undoMove(col);
+			}
+		}
+	}
+
+	/**
+	 * Checks every column of every position
+	 * @return int (number of valid moves)
+	 */
+	@Benchmark
+	public int isValidMove() {
+		int count = 0;
+		for (Connect4Game game : games) {
+			for (int col = 0; col < Connect4State.COLS; col++) {
+				if (game.isValidMove(col)) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Checks whether each position is over
+	 * @return int (number of positions that are over)
+	 */
+	@Benchmark
+	public int gameIsOver() {
+		int count = 0;
+		for (Connect4Game game : games) {
+			if (game.gameIsOver()) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Evaluates each position for the player to move
+	 * @return int (sum of the evaluations)
+	 */
+	@Benchmark
+	public int staticEval() {
+		int sum = 0;
+		for (Connect4Game game : games) {
+			sum += ComputerConnect4Player.staticEval(game);
+		}
+		return sum;
+	}
+
+	/**
+	 * Builds the table of all 4 in a rows
+	 * @return NInARow
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public NInARow nInARow() {
+		return new NInARow(4);
+	}
+} // This brace } ends the GameBenchmark Class
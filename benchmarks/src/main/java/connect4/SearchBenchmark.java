@@ -0,0 +1,74 @@
+package connect4;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of a computer player's full search (ComputerConnect4Player.getMove,
+ * which runs SearchWorker.pickMove) to a fixed depth on every corpus position.
+ * The transposition table is emptied before each search, so every run does
+ * the same work.  Sampling the time of each run gives the latency percentiles
+ * as well as the average.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+	// Depth to search to
+	@Param({"4", "6", "8"})
+	public int depth;
+
+	// Corpus position to search (see Corpus.MOVES)
+	@Param({"0", "2", "4", "6"})
+	public int position;
+
+	// Instance variables
+	private ComputerConnect4Player player;	// The player searching
+	private Connect4Game game;				// The position searched
+	private Connect4View view;				// Shows nothing
+
+	/**
+	 * Sets the player and position up
+	 */
+	@Setup
+	public void setUp() {
+		player = new ComputerConnect4Player("A", depth);
+		game = Corpus.games(new Player[] {player, player})[position];
+		view = new NullConnect4View();
+	}
+
+	/**
+	 * Empties the transposition table, so no search gets a head start from the last one
+	 */
+	@Setup(Level.Invocation)
+	public void clearTable() {
+		player.getTranspositionTable().clear();
+	}
+
+	/**
+	 * Searches the position
+	 * @return int (move chosen)
+	 */
+	@Benchmark
+	public int search() {
+		return player.getMove(game, view);
+	}
+} // This brace } ends the SearchBenchmark Class
@@ -0,0 +1,389 @@
+package connect4;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Analyzes many positions with an engine (see EngineConfig), with no one
+ * watching, for annotating logged games in bulk.  The input is either text,
+ * with one game per line as the moves (column digits) from the empty board,
+ * or a game record file (see GameRecordWriter); either the position at the
+ * end of each game is analyzed, or every position of the game on the way
+ * there.  For each position the engine's best move, its
+ * score, how deep it searched, the positions it searched and the time it
+ * took are written out, in the order of the input.
+ *
+ * Games are analyzed on a fixed pool of worker threads, each keeping its own
+ * player from game to game.  The input is read only as fast as the workers
+ * get through it: at most QUEUE_PER_WORKER games per worker are read ahead,
+ * and once that many are waiting the reader writes out the oldest one's
+ * results (waiting for them if need be) before reading another.  So memory
+ * stays the same however long the input is, and results come out in order.
+ * A player's transposition table keeps what earlier positions left in it,
+ * so a search can come out slightly differently with another number of
+ * workers (as it can in a game, depending on the moves before).
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class Analyzer {
+	// Games read ahead of the one being written out, per worker
+	public static final int QUEUE_PER_WORKER = 4;
+
+	// First line of the output, naming the columns of each position's line
+	public static final String HEADER = "game\tply\tplayed\tbest\tscore\tdepth\tnodes\tmicros";
+
+	// The view of every position, which shows nothing
+	private static final Connect4View VIEW = new NullConnect4View();
+
+	/**
+	 * What the engine found in one position
+	 */
+	public static class Analysis {
+		public final int game;			// Number of the game in the input (from 1)
+		public final int ply;			// Moves made before the position
+		public final int played;		// Move made in the game from the position (-1 if the game ends there)
+		public final int best;			// Move the engine chose
+		public final int score;			// Its value for the player to move (0 if the engine does not say)
+		public final int depth;			// Deepest search completed (0 if the engine does not say)
+		public final long nodes;		// Positions searched (or games played by a Monte Carlo player)
+		public final long nanos;		// Time taken
+
+		/**
+		 * Creates the analysis of a position
+		 * @param int game
+		 * @param int ply
+		 * @param int played
+		 * @param int best
+		 * @param int score
+		 * @param int depth
+		 * @param long nodes
+		 * @param long nanos
+		 */
+		Analysis(int game, int ply, int played, int best, int score, int depth, long nodes, long nanos) {
+			this.game = game;
+			this.ply = ply;
+			this.played = played;
+			this.best = best;
+			this.score = score;
+			this.depth = depth;
+			this.nodes = nodes;
+			this.nanos = nanos;
+		}
+
+		/**
+		 * Gets the analysis as a line of the output
+		 * @return String (tab-separated, as described by HEADER)
+		 */
+		public String toString() {
+			return game + "\t" + ply + "\t" + (played < 0 ? "-" : String.valueOf(played)) + "\t" + best
+					+ "\t" + score + "\t" + depth + "\t" + nodes + "\t" + nanos / 1000;
+		}
+	}
+
+	/**
+	 * Thrown for a game of the input that is not a game, which is written out
+	 * as a # comment (other failures of an analysis end the run)
+	 */
+	public static class InvalidGameException extends IllegalArgumentException {
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Creates the exception
+		 * @param String message (which game, and where it went wrong)
+		 */
+		InvalidGameException(String message) {
+			super(message);
+		}
+	}
+
+	// Instance variables
+	private final EngineConfig engine;		// The engine to analyze with
+	private int workers = 1;				// Games analyzed at once
+	private boolean everyPosition;			// True to analyze every position of each game
+	private OpeningBook book;				// Opening book (null if none)
+	private EndgameTablebase tablebase;		// Endgame tablebase (null if none)
+	private long positions;					// Positions analyzed by the run so far
+	private long nodes;						// Positions searched by the run so far
+	private long errors;					// Games of the input that were not valid
+
+	/**
+	 * Creates an analyzer
+	 * @param EngineConfig engine
+	 */
+	public Analyzer(EngineConfig engine) {
+		this.engine = engine;
+	}
+
+	/**
+	 * Sets the number of games to analyze at once, each on its own thread
+	 * @param int workers (at least 1)
+	 */
+	public void setWorkers(int workers) {
+		this.workers = Math.max(1, workers);
+	}
+
+	/**
+	 * Sets whether to analyze every position of each game, or only the last
+	 * @param boolean everyPosition
+	 */
+	public void setEveryPosition(boolean everyPosition) {
+		this.everyPosition = everyPosition;
+	}
+
+	/**
+	 * Sets the opening book, for the engine
+	 * @param OpeningBook book (null for none)
+	 */
+	public void setOpeningBook(OpeningBook book) {
+		this.book = book;
+	}
+
+	/**
+	 * Sets the endgame tablebase, for the engine
+	 * @param EndgameTablebase tablebase (null for none)
+	 */
+	public void setEndgameTablebase(EndgameTablebase tablebase) {
+		this.tablebase = tablebase;
+	}
+
+	/**
+	 * Where the games to analyze come from
+	 */
+	private interface GameSource {
+		/**
+		 * Reads the next game
+		 * @return String (its moves as column digits, or null at the end of the input)
+		 * @throws IOException
+		 */
+		String next() throws IOException;
+	}
+
+	/**
+	 * Analyzes every game of a text input.  Blank lines and lines starting
+	 * with # are skipped; a line that is not a game is written out as a # comment.
+	 * @param BufferedReader in (one game per line)
+	 * @param PrintWriter out (gets HEADER, then a line per position analyzed)
+	 * @return long (number of positions analyzed)
+	 * @throws IOException if the input cannot be read
+	 * @throws IllegalArgumentException if the engine's player cannot be made
+	 */
+	public long run(BufferedReader in, PrintWriter out) throws IOException {
+		return this.run(() -> {
+			String line;
+			while ((line = in.readLine()) != null) {
+				String moves = line.trim();
+				if (!moves.isEmpty() && !moves.startsWith("#")) {
+					return moves;
+				}
+			}
+			return null;
+		}, out);
+	}
+
+	/**
+	 * Analyzes every game of a game record file
+	 * @param GameRecordReader in
+	 * @param PrintWriter out (gets HEADER, then a line per position analyzed)
+	 * @return long (number of positions analyzed)
+	 * @throws IOException if the file cannot be read or a record is not valid
+	 * @throws IllegalArgumentException if the engine's player cannot be made
+	 */
+	public long run(GameRecordReader in, PrintWriter out) throws IOException {
+		return this.run(() -> {
+			GameRecord game = in.read();
+			return game == null ? null : game.getMoves();
+		}, out);
+	}
+
+	/**
+	 * Analyzes every game from a source
+	 * @param GameSource games
+	 * @param PrintWriter out
+	 * @return long (number of positions analyzed)
+	 * @throws IOException if the games cannot be read
+	 * @throws IllegalArgumentException if the engine's player cannot be made
+	 */
+	private long run(GameSource games, PrintWriter out) throws IOException {
+		// Make the first worker's player before reading any input, so a spec that cannot
+		// make a player fails here, and not as an invalid game on every line
+		AtomicReference<Player> first = new AtomicReference<Player>(engine.createPlayer("Analyzer", book, tablebase));
+		positions = 0;
+		nodes = 0;
+		errors = 0;
+		out.println("# engine: " + engine);
+		out.println(HEADER);
+		// Each worker thread keeps its own player from game to game
+		ThreadLocal<Player> players = ThreadLocal.withInitial(() -> {
+			Player player = first.getAndSet(null);
+			return player != null ? player : engine.createPlayer("Analyzer", book, tablebase);
+		});
+		ExecutorService pool = Executors.newFixedThreadPool(workers);
+		ArrayDeque<Future<List<Analysis>>> pending = new ArrayDeque<Future<List<Analysis>>>();
+		int capacity = workers * QUEUE_PER_WORKER;
+		try {
+			String moves;
+			int number = 0;
+			while ((moves = games.next()) != null) {
+				int game = ++number;
+				String gameMoves = moves;
+				pending.add(pool.submit(() -> Analyzer.analyze(players.get(), game, gameMoves, everyPosition)));
+				// Wait for the oldest game before reading on, once enough are waiting
+				while (pending.size() >= capacity) {
+					this.write(pending.remove(), out);
+				}
+			}
+			while (!pending.isEmpty()) {
+				this.write(pending.remove(), out);
+			}
+		}
+		finally {
+			pool.shutdownNow();
+			out.flush();
+		}
+		return positions;
+	}
+
+	/**
+	 * Waits for a game's analysis and writes it out
+	 * @param Future<List<Analysis>> result
+	 * @param PrintWriter out
+	 * @throws IOException if the analysis was interrupted
+	 */
+	private void write(Future<List<Analysis>> result, PrintWriter out) throws IOException {
+		try {
+			for (Analysis analysis : result.get()) {
+				out.println(analysis);
+				positions++;
+				nodes += analysis.nodes;
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Analysis interrupted");
+		}
+		catch (ExecutionException ex) {
+			if (!(ex.getCause() instanceof InvalidGameException)) {
+				throw new IllegalStateException("A game could not be analyzed", ex.getCause());
+			}
+			out.println("# " + ex.getCause().getMessage());
+			errors++;
+		}
+	}
+
+	/**
+	 * Gets the number of positions searched by the last run
+	 * @return long nodes
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Gets the number of games of the last run's input that were not valid
+	 * @return long errors
+	 */
+	public long getErrors() {
+		return errors;
+	}
+
+	/**
+	 * Analyzes a game
+	 * @param Player player (the engine)
+	 * @param int game (number of the game in the input)
+	 * @param String moves (column digits from the empty board)
+	 * @param boolean everyPosition (true for every position the game reaches, false for the last one)
+	 * @return List<Analysis> (none if the game is over at the end)
+	 * @throws InvalidGameException if the moves are not a game
+	 */
+	public static List<Analysis> analyze(Player player, int game, String moves, boolean everyPosition) {
+		Connect4Game state = new Connect4Game(0, new Player[] {player, player}, VIEW);
+		List<Analysis> analyses = new ArrayList<Analysis>();
+		for (int ply = 0; ply <= moves.length(); ply++) {
+			int played = ply < moves.length() ? moves.charAt(ply) - '0' : -1;
+			if (ply < moves.length() && (state.gameIsOver() || played < 0 || played >= Connect4State.COLS
+					|| !state.isValidMove(played))) {
+				throw new InvalidGameException("Game " + game + ": invalid move at ply " + ply + " of " + moves);
+			}
+			if ((everyPosition || played < 0) && !state.gameIsOver()) {
+				analyses.add(Analyzer.analyze(player, state, game, played));
+			}
+			if (played >= 0) {
+				state.makeMove(played);
+			}
+		}
+		return analyses;
+	}
+
+	/**
+	 * Analyzes one position
+	 * @param Player player (the engine)
+	 * @param Connect4Game state (where the game is not over)
+	 * @param int game (number of the game in the input)
+	 * @param int played (move made from it in the game, or -1)
+	 * @return Analysis
+	 */
+	private static Analysis analyze(Player player, Connect4Game state, int game, int played) {
+		long start = System.nanoTime();
+		int best = player.getMove(state, VIEW);
+		long nanos = System.nanoTime() - start;
+		int score = 0;
+		int depth = 0;
+		if (player instanceof ComputerConnect4Player) {
+			SearchStats stats = ((ComputerConnect4Player) player).getSearchStats();
+			score = stats.getScore();
+			depth = stats.getDepth();
+		}
+		return new Analysis(game, state.getMoveCount(), played, best, score, depth, EngineConfig.nodeCount(player), nanos);
+	}
+
+	/**
+	 * Analyzes the games of a file and writes the results to another
+	 * @param String [] args (engine, input file (text or game records), output file, and optionally
+	 *   the number of workers and "every" to analyze every position of each game)
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3) {
+			System.err.println("Usage: java connect4.Analyzer <engine> <games file | game record file> <output file> [workers] [every]");
+			System.err.println("The engine is given as, for example, computer:depth=10 or computer:time=100 (see EngineConfig)");
+			System.exit(1);
+		}
+		Analyzer analyzer = new Analyzer(EngineConfig.parse(args[0]));
+		if (args.length > 3) {
+			analyzer.setWorkers(Integer.parseInt(args[3]));
+		}
+		analyzer.setEveryPosition(args.length > 4 && args[4].equalsIgnoreCase("every"));
+		analyzer.setOpeningBook(Connect4.openingBook(VIEW));
+		analyzer.setEndgameTablebase(Connect4.endgameTablebase(VIEW));
+		File file = new File(args[1]);
+		boolean records = GameRecordReader.isRecordFile(file);
+		Closeable in = records ? new GameRecordReader(file) : new BufferedReader(new FileReader(file));
+		PrintWriter out = new PrintWriter(new FileWriter(args[2]));
+		try {
+			long start = System.nanoTime();
+			long positions = records ? analyzer.run((GameRecordReader) in, out) : analyzer.run((BufferedReader) in, out);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.printf("%d positions, %d nodes, %d invalid games, %.1f s, %.1f positions per second%n",
+					positions, analyzer.getNodes(), analyzer.getErrors(), seconds, positions / seconds);
+		}
+		finally {
+			in.close();
+			out.close();
+		}
+	}
+} // This brace } ends the Analyzer Class
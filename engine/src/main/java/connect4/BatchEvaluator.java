@@ -0,0 +1,72 @@
+package connect4;
+
+/**
+ * Evaluates many positions at once, giving each exactly the score
+ * ComputerConnect4Player.staticEval (TableEvaluator) gives it, for analysis
+ * that evaluates far more positions than a search does.  The positions come
+ * as a PositionBatch and the scores go into a primitive array.
+ *
+ * create() gives the fastest evaluator this JVM can run: one using SIMD
+ * instructions through the incubating vector API (VectorBatchEvaluator) when
+ * the JVM was started with --add-modules jdk.incubator.vector, and otherwise
+ * one that scores the positions one at a time.
+ * An evaluator reuses its working memory from call to call, so each thread
+ * should have its own.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public abstract class BatchEvaluator {
+
+	/**
+	 * Gets the fastest evaluator available
+	 * @return BatchEvaluator
+	 */
+	public static BatchEvaluator create() {
+		// Loaded by name, since the class cannot even be loaded without the vector module
+		try {
+			return (BatchEvaluator) Class.forName("connect4.VectorBatchEvaluator").getDeclaredConstructor().newInstance();
+		}
+		catch (ReflectiveOperationException | LinkageError ex) {
+			return BatchEvaluator.scalar();
+		}
+	}
+
+	/**
+	 * Gets the evaluator that scores positions one at a time
+	 * @return BatchEvaluator
+	 */
+	public static BatchEvaluator scalar() {
+		return new BatchEvaluator() {
+			public void evaluate(long[] mine, long[] theirs, int count, int[] scores) {
+				for (int i = 0; i < count; i++) {
+					scores[i] = TableEvaluator.boardScore(mine[i], theirs[i]);
+				}
+			}
+
+			public String toString() {
+				return "scalar";
+			}
+		};
+	}
+
+	/**
+	 * Evaluates every position of a batch
+	 * @param PositionBatch batch
+	 * @return int [] scores (one per position, in order)
+	 */
+	public int[] evaluate(PositionBatch batch) {
+		int[] scores = new int[batch.size()];
+		this.evaluate(batch.getMine(), batch.getTheirs(), batch.size(), scores);
+		return scores;
+	}
+
+	/**
+	 * Evaluates positions given as bitboards
+	 * @param long [] mine (checkers of the player to score each position for)
+	 * @param long [] theirs (checkers of the other player)
+	 * @param int count (number of positions, from the start of the arrays)
+	 * @param int [] scores (gets the score of each position)
+	 */
+	public abstract void evaluate(long[] mine, long[] theirs, int count, int[] scores);
+} // This brace } ends the BatchEvaluator Class
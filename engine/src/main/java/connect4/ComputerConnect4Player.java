@@ -0,0 +1,507 @@
+package connect4;
+
+/**
+ * Implements a computer player that chooses moves using
+ * game tree search with alpha-beta pruning
+ * Inspired by ComputerKalahPlayerAB.java
+ * 
+ * @author Etai Klein & Katie Lachance
+ * Problem Set #6
+ */
+public class ComputerConnect4Player extends Player {
+	// Private instance variables
+	private int depth;			// Horizon (look-ahead for computer; how many levels to search down)
+	private TranspositionTable table;	// Results of positions already searched (null if not used)
+	private long moveTime;		// Milliseconds to search for each move (0 to search to a fixed depth)
+	private SearchAlgorithm algorithm = SearchAlgorithm.ALPHA_BETA;	// How to search the game tree
+	private int aspirationWindow;	// Half width of the window around the last iteration's value (0 for none)
+	private SearchWorker [] workers;	// Searchers, one per thread (the first runs on the calling thread)
+	private OpeningBook book;		// Best moves of positions near the start (null if not used)
+	private EndgameTablebase tablebase;	// Exact results of late positions (null if not used)
+	private PositionIndex experience;	// Outcomes of archived games (null if not used)
+	private int experienceGames;	// Fewest games a move must have been played in to be played from it
+	private Evaluator evaluator = new TableEvaluator();	// Scores positions where the search stops
+	private boolean pondering;		// True to search during the opponent's turn
+	private SearchWorker ponderer;	// Searcher for the position after the predicted reply (null until needed)
+	private Thread ponderThread;	// Thread the ponderer runs on (null when not pondering)
+	private long ponderHash;		// Hash of the position being pondered
+	private int ponderMoveCount;	// Number of checkers in that position
+	private long ponderStart;		// System.nanoTime() when pondering started
+	private int ponderHits;			// Moves where the predicted reply was played
+	private int ponderMisses;		// Moves where another reply was played
+	private SearchStats stats = new SearchStats(0);	// What the search for the last move did
+	
+	// Memory used by the transposition table if no size is given
+	public static final int DEFAULT_TABLE_MEGABYTES = 16;
+	
+	// Weights given to each in-a-row (Connect4Game keeps a running score with them)
+	// Note that there is an exponentially higher weight given to longer "in-a-rows"
+	static final int THREE_VAL = 64;
+	static final int TWO_VAL = 16;
+	static final int ONE_VAL = 4;
+	static final int ZERO_VAL = 1;
+	// Split multiplier weight moves that will directly result in a longer "in-a-rows"
+	static final int SPLIT_MULTIPLIER = 2;
+	// End multiplier highly weights any moves that will end the game
+	static final int END_MULTIPLIER = 100;
+	
+	/**
+	 * Constructor to set name and depth
+	 * @param String name
+	 * @param int horizon
+	 */
+	public ComputerConnect4Player(String name, int horizon) {
+		this(name, horizon, DEFAULT_TABLE_MEGABYTES);
+	}
+
+	/**
+	 * Constructor to set name, depth and the memory for the transposition table
+	 * @param String name
+	 * @param int horizon
+	 * @param int tableMegabytes (0 to search without a transposition table)
+	 */
+	public ComputerConnect4Player(String name, int horizon, int tableMegabytes) {
+		super(name);
+		depth = horizon;
+		if (tableMegabytes > 0) {
+			table = new TranspositionTable(tableMegabytes);
+		}
+		this.setThreads(1);
+	}
+
+	/**
+	 * Constructor to set name, depth and search algorithm
+	 * @param String name
+	 * @param int horizon
+	 * @param SearchAlgorithm algorithm
+	 */
+	public ComputerConnect4Player(String name, int horizon, SearchAlgorithm algorithm) {
+		this(name, horizon);
+		this.algorithm = algorithm;
+	}
+
+	/**
+	 * Sets the game tree search algorithm
+	 * @param SearchAlgorithm algorithm
+	 */
+	public void setSearchAlgorithm(SearchAlgorithm algorithm) {
+		this.algorithm = algorithm;
+	}
+
+	/**
+	 * Sets the aspiration window.  When searching one level deeper than the last
+	 * iteration, the search starts with a window this far either side of the last
+	 * value, and searches again with the full window only if the value falls outside.
+	 * Setting a window turns on iterative deepening even without a move time.
+	 * @param int halfWidth (0 to always search with the full window)
+	 */
+	public void setAspirationWindow(int halfWidth) {
+		this.aspirationWindow = halfWidth;
+	}
+
+	/**
+	 * Sets how long to search for each move.  With a time limit, the player searches
+	 * 1 move ahead, then 2, then 3, and so on (up to the horizon) until time runs
+	 * out, and plays the best move of the deepest search that finished.
+	 * @param long millis (milliseconds per move, or 0 to always search to the horizon)
+	 */
+	public void setMoveTime(long millis) {
+		moveTime = millis;
+	}
+
+	/**
+	 * Sets the number of threads to search with.  With more than one, the extra
+	 * threads search the same position at the same time (each iteratively deepening
+	 * on its own board, starting at different depths) and share the transposition
+	 * table, so the first thread finds most positions already searched ("Lazy SMP").
+	 * With one thread the search is exactly the single-threaded search.
+	 * @param int threads (at least 1)
+	 */
+	public void setThreads(int threads) {
+		workers = new SearchWorker[Math.max(1, threads)];
+		for (int i = 0; i < workers.length; i++) {
+			workers[i] = new SearchWorker(table);
+			workers[i].setTablebase(tablebase);
+			workers[i].setEvaluator(evaluator);
+			// Helpers start one or two levels down, so neighbouring threads search different depths
+			workers[i].setFirstDepth(1 + (i % 2));
+		}
+	}
+
+	/**
+	 * Sets the static evaluation function
+	 * @param Evaluator evaluator (TableEvaluator unless set)
+	 */
+	public void setEvaluator(Evaluator evaluator) {
+		this.evaluator = evaluator;
+		for (SearchWorker worker : workers) {
+			worker.setEvaluator(evaluator);
+		}
+		if (ponderer != null) {
+			ponderer.setEvaluator(evaluator);
+		}
+	}
+
+	/**
+	 * Gets the static evaluation function
+	 * @return Evaluator evaluator
+	 */
+	public Evaluator getEvaluator() {
+		return evaluator;
+	}
+
+	/**
+	 * Sets the opening book.  Positions in the book are played from it without searching.
+	 * @param OpeningBook book (null for none)
+	 */
+	public void setOpeningBook(OpeningBook book) {
+		this.book = book;
+	}
+
+	/**
+	 * Sets the experience book: an index of archived games.  Where a move has
+	 * been played from the position in enough of them, the one that has done
+	 * best (see PositionIndex.getBestMove) is played without searching.
+	 * @param PositionIndex index (null for none)
+	 * @param int minGames (fewest games a move must have been played in; 0 to not use the index)
+	 */
+	public void setExperienceBook(PositionIndex index, int minGames) {
+		this.experience = index;
+		this.experienceGames = minGames;
+	}
+
+	/**
+	 * Sets the endgame tablebase.  Positions in it are played from it without searching.
+	 * @param EndgameTablebase tablebase (null for none)
+	 */
+	public void setEndgameTablebase(EndgameTablebase tablebase) {
+		this.tablebase = tablebase;
+		for (SearchWorker worker : workers) {
+			worker.setTablebase(tablebase);
+		}
+	}
+
+	/**
+	 * Overload the constructor for when not initializing the game
+	 * @param name
+	 */
+	public ComputerConnect4Player(String name) {
+		this(name, 0);
+	}
+
+	/**
+	 * Returns and reports the computer's move using alpha-beta game tree pruning
+	 * @return int (column of computer's move choice)
+	 */
+	public int getMove(Connect4State state, Connect4View view) {
+		Connect4Game game = (Connect4Game) state;
+		int move = -1;
+		long start = System.nanoTime();
+		stats = new SearchStats(Connect4Position.SPOTS + 1);
+		// If the background search was on this position, it has a head start
+		if (ponderThread != null) {
+			if (game.getHash() == ponderHash && game.getMoveCount() == ponderMoveCount) {
+				ponderHits++;
+				move = this.finishPondering();
+				ponderer.addStats(stats);
+				stats.setResult(ponderer.getCompletedDepth(), ponderer.getResult().value, ponderer.principalVariation());
+			}
+			else {
+				ponderMisses++;
+				this.stopPondering();
+			}
+		}
+		if (move < 0) {
+			move = this.chooseMove(game);
+		}
+		stats.setNanos(System.nanoTime() - start);
+		// Think about the reply to this move while the opponent does
+		if (pondering) {
+			this.startPondering(game, move);
+		}
+		// Report the move chosen
+		view.reportMove(move, state.getPlayerToMove().getName());
+		// Return move
+		return move;
+	}
+
+	/**
+	 * Chooses a move from the opening book, the experience book or by searching
+	 * @param Connect4Game state
+	 * @return int (column of computer's move choice)
+	 */
+	private int chooseMove(Connect4Game state) {
+		// Play the book move if the position is in the opening book
+		if (book != null && state.getMoveCount() <= book.getPlies()) {
+			int move = book.getMove(new Connect4Position(state));
+			if (move >= 0) {
+				return move;
+			}
+		}
+		// Play the move that has done best in the archived games, if it has been played in enough of them
+		// (not where the endgame tablebase knows the exact result, which the search then finds)
+		boolean inTablebase = tablebase != null && Connect4Position.SPOTS - state.getMoveCount() <= tablebase.getEmpties();
+		if (experience != null && experienceGames > 0 && !inTablebase) {
+			int move = experience.getBestMove(new Connect4Position(state), experienceGames);
+			if (move >= 0) {
+				return move;
+			}
+		}
+		// Search on a private copy of the state, so moves can be made and taken back
+		// without allocating a new game state per node or touching the displayed game
+		Connect4Game board = new Connect4Game(state);
+		if (table != null) {
+			table.newSearch();
+			table.resetCounts();
+		}
+		long deadline = moveTime > 0 ? System.nanoTime() + moveTime * 1000000L : 0;
+		for (SearchWorker worker : workers) {
+			worker.prepare(worker == workers[0] ? board : new Connect4Game(board), depth, algorithm, aspirationWindow, deadline);
+		}
+		// Find the best move
+		int move;
+		if (workers.length > 1) {
+			move = this.searchInParallel();
+		}
+		else if (moveTime > 0 || algorithm == SearchAlgorithm.MTDF || aspirationWindow > 0) {
+			move = workers[0].searchIteratively().move;
+		}
+		else {
+			move = workers[0].searchToHorizon().move;
+		}
+		for (SearchWorker worker : workers) {
+			worker.addStats(stats);
+		}
+		stats.setResult(workers[0].getCompletedDepth(), workers[0].getResult().value, workers[0].principalVariation());
+		return move;
+	}
+
+	/**
+	 * Turns pondering on or off.  When on, after choosing a move the player
+	 * guesses the opponent's reply (the best reply its search found) and keeps
+	 * searching the position after it on a background thread, sharing the
+	 * transposition table.  If the opponent does play that reply, the next move
+	 * comes from that search: at once if it already reached the horizon (or
+	 * already used up the move time), otherwise as soon as it does.
+	 * @param boolean pondering
+	 */
+	public void setPondering(boolean pondering) {
+		this.pondering = pondering;
+		if (!pondering) {
+			this.stopPondering();
+		}
+	}
+
+	/**
+	 * Starts searching the position after the predicted reply to a move
+	 * @param Connect4Game state (before the move)
+	 * @param int move
+	 */
+	private void startPondering(Connect4Game state, int move) {
+		Connect4Game board = new Connect4Game(state);
+		board.makeMove(move);
+		if (board.gameIsOver()) {
+			return;
+		}
+		// The search of this move left the opponent's best reply in the table
+		int reply = -1;
+		if (table != null) {
+			reply = TranspositionTable.move(table.probe(board.getCanonicalHash()));
+			if (reply >= 0 && board.isMirrored()) {
+				reply = Connect4State.COLS - 1 - reply;
+			}
+		}
+		if (!board.isValidMove(reply)) {
+			return;
+		}
+		board.makeMove(reply);
+		if (board.gameIsOver()) {
+			return;
+		}
+		ponderHash = board.getHash();
+		ponderMoveCount = board.getMoveCount();
+		ponderStart = System.nanoTime();
+		if (table != null) {
+			table.newSearch();
+		}
+		if (ponderer == null) {
+			ponderer = new SearchWorker(table);
+			ponderer.setTablebase(tablebase);
+			ponderer.setEvaluator(evaluator);
+		}
+		ponderer.prepare(board, depth, algorithm, aspirationWindow, 0);
+		ponderThread = new Thread(ponderer, getName() + " ponder");
+		ponderThread.setDaemon(true);
+		ponderThread.start();
+	}
+
+	/**
+	 * Lets the background search finish the position it was on, which is the
+	 * position to move in: to the horizon, or until the move time (counted from
+	 * when pondering started) is up
+	 * @return int (column of the move it chose)
+	 */
+	private int finishPondering() {
+		try {
+			if (moveTime > 0) {
+				long left = moveTime - (System.nanoTime() - ponderStart) / 1000000L;
+				if (left > 0) {
+					ponderThread.join(left);
+				}
+			}
+			else {
+				ponderThread.join();
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		this.stopPondering();
+		return ponderer.getResult().move;
+	}
+
+	/**
+	 * Stops the background search, if one is running, and waits for it to end.
+	 * Call this when the game is over.
+	 */
+	public void stopPondering() {
+		if (ponderThread == null) {
+			return;
+		}
+		ponderer.stop();
+		try {
+			ponderThread.join();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		ponderThread = null;
+	}
+
+	/**
+	 * Gets the number of moves where the opponent played the predicted reply
+	 * @return int ponderHits
+	 */
+	public int getPonderHits() {
+		return ponderHits;
+	}
+
+	/**
+	 * Gets the number of moves where the opponent played something else
+	 * @return int ponderMisses
+	 */
+	public int getPonderMisses() {
+		return ponderMisses;
+	}
+
+	/**
+	 * Searches with every worker: the helpers run on their own threads until the
+	 * first worker has finished (on this thread), and are then stopped
+	 * @return the move chosen by the first worker
+	 */
+	private int searchInParallel() {
+		Thread [] helpers = new Thread[workers.length - 1];
+		for (int i = 0; i < helpers.length; i++) {
+			helpers[i] = new Thread(workers[i + 1], getName() + " search " + (i + 1));
+			helpers[i].setDaemon(true);
+			helpers[i].start();
+		}
+		int move = workers[0].searchIteratively().move;
+		for (int i = 0; i < helpers.length; i++) {
+			workers[i + 1].stop();
+		}
+		for (Thread helper : helpers) {
+			try {
+				helper.join();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return move;
+	}
+
+	/**
+	 * Gets the number of moves made while searching for the last move (by all
+	 * threads, or by the background search on a ponder hit; 0 for a book move)
+	 * @return long nodeCount
+	 */
+	public long getNodeCount() {
+		return stats.getNodes();
+	}
+
+	/**
+	 * Gets what the search for the last move did (all zero for a book move)
+	 * @return SearchStats stats
+	 */
+	public SearchStats getSearchStats() {
+		return stats;
+	}
+
+	/**
+	 * Gets the horizon (how many levels the search looks down)
+	 * @return int depth
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Gets how long to search for each move
+	 * @return long millis (0 for no time limit)
+	 */
+	public long getMoveTime() {
+		return moveTime;
+	}
+
+	/**
+	 * Gets the deepest search that finished for the last move
+	 * @return int completedDepth
+	 */
+	public int getCompletedDepth() {
+		return stats.getDepth();
+	}
+
+	/**
+	 * Gets the transposition table (for its hit counts)
+	 * @return TranspositionTable table, or null if there is none
+	 */
+	public TranspositionTable getTranspositionTable() {
+		return table;
+	}
+
+	/**
+	 * Static evaluation function to determine the "score" of the board for the current
+	 * player (the default evaluation, see TableEvaluator). In Connect4, "score" is determined by the weighted sum of how many 3 in 
+	 * a rows, 2 in a rows, 1 in a rows, and 0 in a rows, multiplying the score if that
+	 * space is directly available (empty, but full directly below it)
+	 * The game state keeps this score up to date as moves are made, so this just reads it.
+	 * @param Connect4State state
+	 * @return int (score of board for player)
+	 */
+	public static int staticEval (Connect4State state) {
+		return staticEval(state, state.getPlayerNum());
+	}
+
+	/**
+	 * Static evaluation function for either player
+	 * @param Connect4State state
+	 * @param int playerNum (player to score the board for)
+	 * @return int (score of board for player)
+	 */
+	public static int staticEval (Connect4State state, int playerNum) {
+		return ((Connect4Game) state).getScore(playerNum);
+	}
+
+	/**
+	 * Computes the same score as staticEval from scratch, by testing every possible
+	 * 4 in a row against each pattern (see LegacyEvaluator).  Used to check the running score.
+	 * @param Connect4State state
+	 * @param int playerNum (player to score the board for)
+	 * @return int (score of board for player)
+	 */
+	public static int scanEval (Connect4State state, int playerNum) {
+		return new LegacyEvaluator().evaluate((Connect4Game) state, playerNum);
+	}
+
+} // This brace } ends the ComputerConnect4Player Class
@@ -0,0 +1,217 @@
+package connect4;
+
+/**
+ * Creates a game of Connect 4
+ * This class is the "controller" part of the model-view-controller pattern.
+ * 
+ * 
+ * @author Etai Klein & Katie Lachance
+ * 
+ */
+public class Connect4 {
+	// Opening book file for the computer players, used if it exists
+	public static final String BOOK_FILE = System.getProperty("connect4.book", "connect4.book");
+	
+	// Endgame tablebase file for the computer players, used if it exists
+	public static final String TABLEBASE_FILE = System.getProperty("connect4.tablebase", "connect4.tablebase");
+	
+	// Position index directory used as the computer players' experience book (see PositionIndex)
+	public static final String INDEX_DIR = System.getProperty("connect4.index", "connect4.index");
+	
+	// Fewest archived games a move must have been played in for the computer players to play it
+	// from the index (0, the default, to not use the index; see EngineConfig's experience setting)
+	public static final int EXPERIENCE_GAMES = Integer.getInteger("connect4.experience", 0);
+	
+	// True if the computer players should search during their opponent's turn
+	public static final boolean PONDER = Boolean.getBoolean("connect4.ponder");
+	
+	// Game record file each game played is added to (see GameRecordWriter), if set
+	public static final String RECORD_FILE = System.getProperty("connect4.record");
+	
+	// The opening book, endgame tablebase and position index, once opened
+	private static OpeningBook book;
+	private static EndgameTablebase tablebase;
+	private static PositionIndex index;
+	
+	/**
+	 * This is the main function that plays all of Connect4
+	 * It creates the two players, selects the view, initializes the game state,
+	 * and plays the game until the game is over
+	 * @param args
+	 */
+	public static void main (String[] args) {
+		// Choose which view to play in
+		// Connect4View view = new Connect4ViewGraphical();
+		Connect4View view = new Connect4ViewText();
+		
+		// Create players
+		Player [] players = new Player[2];
+		players[0] = Connect4.makePlayer(view, "first");
+		players[1] = Connect4.makePlayer(view, "second");
+		
+		// Initialize the game state and display
+		Connect4Game state = new Connect4Game(0, players, view);
+		view.display(state);
+		
+		// The moves and the time taken for each, for the game record file
+		byte [] moves = new byte[Connect4State.ROWS * Connect4State.COLS];
+		long [] moveMicros = new long[moves.length];
+		
+		// While the game is happening (game is not over)
+		while (!state.gameIsOver()) {
+			// Get the chosen move of the player whose turn it is
+    	long start = System.nanoTime();
+    	int move = state.getPlayerToMove().getMove(state, view);
+    	moveMicros[state.getMoveCount()] = (System.nanoTime() - start) / 1000;
+    	moves[state.getMoveCount()] = (byte) move;
+    	// Make the move
+    	state.makeMove(move);
+    	// Display the new game state
+    	view.display(state);
+    }
+    // Stop any search still running for a move that will not come
+    for (Player player : players) {
+      if (player instanceof ComputerConnect4Player) {
+        ((ComputerConnect4Player) player).stopPondering();
+      }
+    }
+    // At the end of the game
+		// The game state knows who made the 4 in a row (even if it filled the board)
+		if (state.getWinner() != Connect4Game.NO_WINNER)
+      view.reportToUser(players[state.getWinner()].getName() + " wins!");
+		// Otherwise the game ended because it was a draw
+    else
+      view.reportToUser("It is a draw");
+		// Keep the game if there is a game record file
+		if (RECORD_FILE != null) {
+			int count = state.getMoveCount();
+			GameRecord game = new GameRecord(new String[] {players[0].getName(), players[1].getName()},
+					new int[] {GameRecord.depth(players[0]), GameRecord.depth(players[1])}, GameRecord.result(state),
+					java.util.Arrays.copyOf(moves, count), java.util.Arrays.copyOf(moveMicros, count));
+			try {
+				GameRecordWriter records = new GameRecordWriter(new java.io.File(RECORD_FILE));
+				try {
+					records.write(game);
+				}
+				finally {
+					records.close();
+				}
+			}
+			catch (java.io.IOException ex) {
+				view.reportToUser("Could not record the game: " + ex.getMessage());
+			}
+		}
+	}
+	
+	/** 
+   * Constructs a Connect4 player.  If the name contains "Solver" it
+   * constructs a perfect player; if it contains "MCTS" it constructs
+   * a Monte Carlo tree search player; if it contains "Computer" it
+   * constructs a computer player; else a human player
+   * @param view the view to use to communicate to the world
+   * @param playerMsg the player to ask for 
+   */
+  public static Player makePlayer(Connect4View view, String playerMsg) {
+    String playerName = view.getAnswer("Enter the name of the " + playerMsg + 
+    		" player." + "\n(Include 'Computer' in the name of a computer player, 'MCTS' for a Monte Carlo player, or 'Solver' for a perfect player) ");
+    // If it is a perfect player, create a solver player
+    if(playerName.contains("Solver")) {
+      SolverConnect4Player player = new SolverConnect4Player(playerName);
+      player.setOpeningBook(Connect4.openingBook(view));
+      return player;
+    }
+    // If it is a Monte Carlo player, ask how long to think
+    if(playerName.contains("MCTS")) {
+      MctsConnect4Player player = new MctsConnect4Player(playerName);
+      int millis = view.getIntAnswer("How many milliseconds should I think per move? (0 for a set number of games) ");
+      if (millis > 0) {
+        player.setMoveTime(millis);
+      }
+      return player;
+    }
+    // If it is a computer player, ask for horizon and create a computer player
+    if(playerName.contains("Computer")) {
+    	int depth = view.getIntAnswer("How far should I look ahead? (0 to think for a set time) ");
+    	// With no horizon, look as far ahead as time allows
+    	if (depth <= 0) {
+    		int millis = view.getIntAnswer("How many milliseconds should I think per move? ");
+    		ComputerConnect4Player player = new ComputerConnect4Player(playerName, Connect4State.ROWS * Connect4State.COLS);
+    		player.setMoveTime(millis);
+    		return Connect4.setUpComputerPlayer(player, view);
+    	}
+    	return Connect4.setUpComputerPlayer(new ComputerConnect4Player(playerName, depth), view);
+    }
+    // Otherwise, create a human player
+    else
+      return new HumanConnect4Player(playerName);
+  }	
+
+  /**
+   * Gives a computer player the opening book and endgame tablebase (those that
+   * exist) and the experience book (if asked for and it exists), and turns
+   * pondering on if asked for
+   * @param player the computer player
+   * @param view the view to report bad files to
+   * @return the player
+   */
+  private static ComputerConnect4Player setUpComputerPlayer(ComputerConnect4Player player, Connect4View view) {
+    player.setOpeningBook(Connect4.openingBook(view));
+    player.setEndgameTablebase(Connect4.endgameTablebase(view));
+    if (EXPERIENCE_GAMES > 0) {
+      player.setExperienceBook(Connect4.positionIndex(view), EXPERIENCE_GAMES);
+    }
+    player.setPondering(PONDER);
+    return player;
+  }
+
+  /**
+   * Opens the opening book file the first time it is needed
+   * @param view the view to report a bad book file to
+   * @return the opening book, or null if there is no (valid) book file
+   */
+  static OpeningBook openingBook(Connect4View view) {
+    if (book == null && new java.io.File(BOOK_FILE).isFile()) {
+      try {
+        book = new OpeningBook(new java.io.File(BOOK_FILE));
+      }
+      catch (java.io.IOException ex) {
+        view.reportToUser("Not using the opening book: " + ex.getMessage());
+      }
+    }
+    return book;
+  }
+
+  /**
+   * Opens the endgame tablebase file the first time it is needed
+   * @param view the view to report a bad tablebase file to
+   * @return the endgame tablebase, or null if there is no (valid) tablebase file
+   */
+  static EndgameTablebase endgameTablebase(Connect4View view) {
+    if (tablebase == null && new java.io.File(TABLEBASE_FILE).isFile()) {
+      try {
+        tablebase = new EndgameTablebase(new java.io.File(TABLEBASE_FILE));
+      }
+      catch (java.io.IOException ex) {
+        view.reportToUser("Not using the endgame tablebase: " + ex.getMessage());
+      }
+    }
+    return tablebase;
+  }
+
+  /**
+   * Opens the position index the first time it is needed
+   * @param view the view to report a bad index to
+   * @return the position index, or null if there is no (valid) index directory
+   */
+  static synchronized PositionIndex positionIndex(Connect4View view) {
+    if (index == null && new java.io.File(INDEX_DIR).isDirectory()) {
+      try {
+        index = new PositionIndex(new java.io.File(INDEX_DIR));
+      }
+      catch (java.io.IOException ex) {
+        view.reportToUser("Not using the position index: " + ex.getMessage());
+      }
+    }
+    return index;
+  }
+} // This brace } ends the Connect4 Class
\ No newline at end of file
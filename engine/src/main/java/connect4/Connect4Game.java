@@ -0,0 +1,540 @@
+package connect4;
+
+/**
+ * Represents the state of the Connect4 game.  It is the model in the
+ * model-view-controller pattern.
+ *
+ * The board is held as a pair of bitboards, one per player.  Each column
+ * takes ROWS+1 bits (the extra bit is an always-empty sentinel that stops
+ * four-in-a-row checks from wrapping into the next column), so the checker
+ * in row r of column c is bit c*(ROWS+1) + r.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class Connect4Game implements Connect4State {
+	// Bitboard geometry
+	static final int COL_HEIGHT = ROWS + 1;                  // Bits used by each column (including sentinel)
+	static final long BOTTOM_MASK = bottomMask();            // Bit of row 0 in every column
+	static final long BOARD_MASK = BOTTOM_MASK * ((1L << ROWS) - 1);  // Every playable bit
+	// Bit steps for vertical, horizontal and the two diagonal directions
+	private static final int [] DIRECTIONS = {1, COL_HEIGHT, COL_HEIGHT + 1, COL_HEIGHT - 1};
+	// For each direction and bit, the bits where a run of four through that bit can start
+	private static final long [][] RUN_STARTS = runStarts();
+	static final int NO_WINNER = -1;                         // Winner when nobody has 4 in a row
+	private static final NInARow LINES = NInARow.FOUR_IN_A_ROW;  // All possible 4 in a rows
+	// Random number for each player's checker on each bit, XORed together to hash a position
+	private static final long [][] ZOBRIST = zobristKeys();
+	// Zobrist key of the mirror image of each bit, to hash the mirror image of the position
+	private static final long [][] MIRROR_ZOBRIST = mirrorZobristKeys();
+
+	// Instance variables
+	private long [] checkers;         // Bitboard of each player's checkers
+	private int [] height;            // Bit index of the next free slot in each column
+	private int moveCount;            // Number of checkers on the board
+	private int [] board;             // Lazily built int copy of the board for callers that want one
+	private boolean boardIsStale;     // True if the bitboards changed since board was built
+	private int [] moves;             // Columns played since this state was created, in order
+	private int firstMove;            // moveCount when this state was created (start of moves)
+	private int winner;               // Number of the player with 4 in a row, or NO_WINNER
+	private int winningMoveCount;     // moveCount right after the winning move
+	private int [][] lineScores;      // Each player's static evaluation score for each 4 in a row
+	private int [] score;             // Each player's static evaluation score (sum of lineScores)
+	private long hash;                // Zobrist hash of the checkers on the board
+	private long mirrorHash;          // Zobrist hash of the board flipped left to right
+	private int playerToMoveNum;    // 0 or 1 for first and second player
+	private Player [] players;      // Array of the two players
+	private Connect4View view;      // Holds the view, so can update display as state changes (if desired).
+
+	/**
+	 * Create the game state initially
+	 * @param int playerNum
+	 * @param Player [] thePlayers
+	 * @param Connect4View aView
+	 */
+	public Connect4Game (int playerNum, Player [] thePlayers, Connect4View aView) {
+		// Initialize the initial board to all empty
+		// Note that the array will be as long as every position in the board
+		// and be automatically filled with zeros
+		int [] initBoard = new int[ROWS * COLS];
+		this.initialize(playerNum, thePlayers, initBoard);
+		this.view = aView;
+	}
+
+	/**
+	 * Overload the constructor to update the game state
+	 * @param int playerNum (the payer whose move it is)
+	 * @param Player [] thePlayers (the players of the game)
+	 * @param int [] initBoard (board to copy into the game state)
+	 */
+	public Connect4Game (int playerNum, Player [] thePlayers, int [] initBoard) {
+		this.initialize(playerNum, thePlayers, initBoard);
+	}
+
+	/**
+	 * Overload the constructor to copy another game state, so a search can
+	 * play moves on its own board without touching the displayed game
+	 * @param Connect4Game other (the game state to copy)
+	 */
+	public Connect4Game (Connect4Game other) {
+		this.checkers = other.checkers.clone();
+		this.height = other.height.clone();
+		this.moveCount = other.moveCount;
+		this.board = new int[ROWS * COLS];
+		this.boardIsStale = true;
+		this.moves = other.moves.clone();
+		this.firstMove = other.firstMove;
+		this.winner = other.winner;
+		this.winningMoveCount = other.winningMoveCount;
+		this.lineScores = new int[][] {other.lineScores[0].clone(), other.lineScores[1].clone()};
+		this.score = other.score.clone();
+		this.hash = other.hash;
+		this.mirrorHash = other.mirrorHash;
+		this.playerToMoveNum = other.playerToMoveNum;
+		this.players = other.players;
+	}
+
+	private void initialize(int playerNum, Player [] thePlayers, int [] initBoard) {
+		// Create the bitboards and column heights to be updated
+		this.checkers = new long[2];
+		this.height = new int[COLS];
+		this.board = new int[ROWS * COLS];
+		this.moveCount = 0;
+		// Copy the game state into the bitboards, one column at a time from the bottom
+		for (int c = 0; c < COLS; c++) {
+			height[c] = c * COL_HEIGHT;
+			for (int r = 0; r < ROWS; r++) {
+				int checker = initBoard[r*COLS + c];
+				if (checker != 0) {
+					checkers[checker - 1] |= 1L << (c * COL_HEIGHT + r);
+					height[c] = c * COL_HEIGHT + r + 1;
+					moveCount++;
+				}
+			}
+		}
+		this.boardIsStale = true;
+		// No moves have been played on this state yet
+		this.moves = new int[ROWS * COLS];
+		this.firstMove = moveCount;
+		// Find out if the board we were given already has a winner
+		this.winner = NO_WINNER;
+		for (int p = 0; p < 2; p++) {
+			if (hasFourInARow(checkers[p])) {
+				winner = p;
+				winningMoveCount = moveCount;
+			}
+		}
+		// Hash the checkers
+		this.hash = 0;
+		this.mirrorHash = 0;
+		for (int bit = 0; bit < Long.SIZE; bit++) {
+			for (int p = 0; p < 2; p++) {
+				if ((checkers[p] & (1L << bit)) != 0) {
+					hash ^= ZOBRIST[p][bit];
+					mirrorHash ^= MIRROR_ZOBRIST[p][bit];
+				}
+			}
+		}
+		// Score every line
+		this.lineScores = new int[2][LINES.getLineCount()];
+		this.score = new int[2];
+		long playable = this.playable();
+		for (int l = 0; l < LINES.getLineCount(); l++) {
+			this.rescoreLine(l, playable);
+		}
+		// Update current players and player
+		playerToMoveNum = playerNum;
+		players = thePlayers;
+	}
+
+	/**
+	 * Gets a 2-D array representing the board.
+	 * The first subscript is the row number and the second the column number.
+	 * The bottom of the board is row 0 and the top is row ROWS-1.
+	 * The left side of the board is column 0 and the right side is column COLS-1.
+	 * @return the board
+	 */
+	public char[][] getBoard() {
+		// Create board to be returned
+		char[][] boardMatrix = new char[ROWS][COLS];
+		int[] boardArray = this.getBoardArray();
+		// Loop through each row, and then through each column (recall format of multidimensional arrays) of the game state
+		// For each entry site, put an empty character, a player1 character, or a player2 character
+		for (int r = 0 ; r < ROWS ; r++) {
+			for (int c = 0 ; c < COLS ; c++) {
+				// If the entry in the board is 0, there is no checker here and should be given the empty representation in the board
+				if (boardArray[r*COLS+c] == 0) {boardMatrix[r][c] = EMPTY;}
+				// If the entry in the board is 1, there is player1's checker here and should be given the checker0 representation
+				// in the board
+				else if (boardArray[r*COLS+c] == 1) {boardMatrix[r][c] = CHECKER0;}
+				// Otherwise, the entry in the board is 2 and player2's checker is here and should be given the checker1 representation
+				// in the board
+				else {boardMatrix[r][c] = CHECKER1;}
+			}
+		}
+		// Return the board
+		return boardMatrix;
+	}
+
+	/**
+	 * Getter method for a 1D array view of the board (0 empty, 1 or 2 for a
+	 * player's checker).  The array is only rebuilt from the bitboards when it
+	 * is asked for after a move, and it is overwritten by the next such call.
+	 * @return int[] board
+	 */
+	public int[] getBoardArray() {
+		if (this.boardIsStale) {
+			for (int r = 0; r < ROWS; r++) {
+				for (int c = 0; c < COLS; c++) {
+					long bit = 1L << (c * COL_HEIGHT + r);
+					if ((checkers[0] & bit) != 0) {board[r*COLS + c] = 1;}
+					else if ((checkers[1] & bit) != 0) {board[r*COLS + c] = 2;}
+					else {board[r*COLS + c] = 0;}
+				}
+			}
+			this.boardIsStale = false;
+		}
+		return this.board;
+	}
+
+	/**
+	 * Gets the bitboard of one player's checkers
+	 * @param int playerNum (0 or 1)
+	 * @return long bitboard
+	 */
+	public long getBitboard(int playerNum) {
+		return this.checkers[playerNum];
+	}
+
+	/**
+	 * Gets the number of checkers in a column
+	 * @param int col
+	 * @return int number of checkers (0 to ROWS)
+	 */
+	public int getColumnHeight(int col) {
+		return this.height[col] - col * COL_HEIGHT;
+	}
+
+	/**
+	 * Gets the number of checkers on the board
+	 * @return int moveCount
+	 */
+	public int getMoveCount() {
+		return this.moveCount;
+	}
+
+	/**
+	 * Gets the column of the last move made on this state
+	 * @return int column, or -1 if no move has been made since it was created
+	 */
+	public int getLastMove() {
+		return this.moveCount > this.firstMove ? this.moves[this.moveCount - 1] : -1;
+	}
+
+	/**
+	 * Gets the player who has 4 in a row
+	 * @return int player number, or NO_WINNER if neither player has won
+	 */
+	public int getWinner() {
+		return this.winner;
+	}
+
+	/**
+	 * Gets a player's static evaluation score (see TableEvaluator), which is
+	 * kept up to date as moves are made and taken back
+	 * @param int playerNum (0 or 1)
+	 * @return int score
+	 */
+	public int getScore(int playerNum) {
+		return this.score[playerNum];
+	}
+
+	/**
+	 * Gets the Zobrist hash of the position, which is kept up to date as moves are
+	 * made and taken back.  (Whose move it is follows from the number of checkers.)
+	 * @return long hash
+	 */
+	public long getHash() {
+		return this.hash;
+	}
+
+	/**
+	 * Gets the Zobrist hash of the mirror image of the position (flipped left to right)
+	 * @return long mirrorHash
+	 */
+	public long getMirrorHash() {
+		return this.mirrorHash;
+	}
+
+	/**
+	 * Gets the same hash for a position and its mirror image: the smaller of the two
+	 * hashes.  A position and its mirror image have the same value, with moves mirrored.
+	 * @return long canonical hash
+	 */
+	public long getCanonicalHash() {
+		return Math.min(this.hash, this.mirrorHash);
+	}
+
+	/**
+	 * Is the canonical hash the hash of the mirror image?  If so, moves stored under
+	 * the canonical hash are mirrored (column c stands for column COLS-1-c).
+	 * @return boolean (true if the mirror image has the smaller hash)
+	 */
+	public boolean isMirrored() {
+		return this.mirrorHash < this.hash;
+	}
+
+	/**
+	 * Gets an array holding 2 Player objects
+	 * @return the players
+	 */
+	public Player[] getPlayers() {
+		return this.players;
+	}
+
+	/**
+	 * Gets the number of the player whose move it is
+	 * @return the number of the player whose move it is
+	 */
+	public int getPlayerNum() {
+		return this.playerToMoveNum;
+	}
+
+	/**
+	 * Gets the Player whose turn it is to move
+	 * @return the Player whose turn it is to move
+	 */
+	public Player getPlayerToMove() {
+		return this.players[this.playerToMoveNum];
+	}
+
+	/**
+	 * Is this move valid?
+	 * @param col column where we want to move
+	 * @return true if the move is valid
+	 */
+	public boolean isValidMove(int col) {
+		// A move is valid if the column is on the board and its next free
+		// slot is still below the top of the column
+		return col >= 0 && col < COLS && height[col] < col * COL_HEIGHT + ROWS;
+	}
+
+	/**
+	 * Make a move, dropping a checker in the given column
+	 * @param col the column to get the new checker
+	 */
+	public void makeMove(int col) {
+		// A full column cannot take another checker
+		if (!this.isValidMove(col)) {
+			return;
+		}
+		// Place the checker in the lowest free slot of the column and raise the column
+		int bit = this.height[col]++;
+		this.checkers[this.playerToMoveNum] |= 1L << bit;
+		this.hash ^= ZOBRIST[this.playerToMoveNum][bit];
+		this.mirrorHash ^= MIRROR_ZOBRIST[this.playerToMoveNum][bit];
+		this.moves[this.moveCount++] = col;
+		this.boardIsStale = true;
+		this.updateLines(col, bit);
+		// Only lines through the new checker can have become 4 in a row
+		if (this.winner == NO_WINNER && makesFourInARow(this.checkers[this.playerToMoveNum], bit)) {
+			this.winner = this.playerToMoveNum;
+			this.winningMoveCount = this.moveCount;
+		}
+		// Switch players
+		this.playerToMoveNum = 1 - this.playerToMoveNum;
+	}
+
+	/**
+	 * Take back the last move, which dropped a checker in the given column
+	 * @param col the column that got the last checker
+	 */
+	public void undoMove(int col) {
+		// If this was the winning move, nobody has won any more
+		if (this.moveCount == this.winningMoveCount) {
+			this.winner = NO_WINNER;
+			this.winningMoveCount = 0;
+		}
+		// Switch back to the player who made the move
+		this.playerToMoveNum = 1 - this.playerToMoveNum;
+		// Lower the column and remove the checker from its slot
+		int bit = --this.height[col];
+		this.checkers[this.playerToMoveNum] ^= 1L << bit;
+		this.hash ^= ZOBRIST[this.playerToMoveNum][bit];
+		this.mirrorHash ^= MIRROR_ZOBRIST[this.playerToMoveNum][bit];
+		this.moveCount--;
+		this.boardIsStale = true;
+		this.updateLines(col, bit);
+	}
+
+	/**
+	 * Is the board full?
+	 * @return true if the board is full
+	 */
+	public boolean isFull() {
+		return this.moveCount == ROWS * COLS;
+	}
+
+	/**
+	 * Decides if the game is over
+	 * @return boolean (true if the game is over)
+	 */
+	public boolean gameIsOver() {
+		// The game is over only when the board is full or when one player has gotten a 4 checkers in a row
+		// (which makeMove already worked out)
+		return this.winner != NO_WINNER || this.isFull();
+	}
+
+	/**
+	 * Updates the line scores after a checker is added or removed.
+	 * Only the lines through the checker's spot change, along with the lines
+	 * through the spot above it (which just became, or stopped being, playable).
+	 * @param int col (column of the checker)
+	 * @param int bit (bit of the checker)
+	 */
+	private void updateLines(int col, int bit) {
+		int row = bit - col * COL_HEIGHT;
+		int cell = row * COLS + col;
+		long playable = this.playable();
+		this.rescoreCell(cell, playable);
+		if (row + 1 < ROWS) {
+			this.rescoreCell(cell + COLS, playable);
+		}
+	}
+
+	/**
+	 * Rescores every line through a cell
+	 * @param int cell (r*COLS + c)
+	 * @param long playable (spots a checker can be dropped into directly)
+	 */
+	private void rescoreCell(int cell, long playable) {
+		for (int k = LINES.getCellLinesStart(cell); k < LINES.getCellLinesEnd(cell); k++) {
+			this.rescoreLine(LINES.getCellLine(k), playable);
+		}
+	}
+
+	/**
+	 * Rescores one line for both players and updates their scores
+	 * @param int line (number of the line in NInARow.FOUR_IN_A_ROW)
+	 * @param long playable (spots a checker can be dropped into directly)
+	 */
+	private void rescoreLine(int line, long playable) {
+		int first = TableEvaluator.pattern(this.checkers[0] | playable, line);
+		int second = TableEvaluator.pattern(this.checkers[1] | playable, line);
+		int newScore = TableEvaluator.lineScore(first, second);
+		this.score[0] += newScore - this.lineScores[0][line];
+		this.lineScores[0][line] = newScore;
+		newScore = TableEvaluator.lineScore(second, first);
+		this.score[1] += newScore - this.lineScores[1][line];
+		this.lineScores[1][line] = newScore;
+	}
+
+	/**
+	 * Gets the empty spots a checker can be dropped into directly (the lowest
+	 * empty spot of each column that is not full)
+	 * @return long bitboard
+	 */
+	private long playable() {
+		return ((this.checkers[0] | this.checkers[1]) + BOTTOM_MASK) & BOARD_MASK;
+	}
+
+	/**
+	 * Tests if the checker at one bit is part of four in a row.  For each of the
+	 * four directions, the board is shifted onto itself to find where runs of
+	 * four start, and only the starts whose run would cover the bit are kept.
+	 * @param long bb (the checkers of the player who owns the bit)
+	 * @param int bit (the bit of the checker)
+	 * @return boolean (true if there is a 4 in a row through the bit)
+	 */
+	static boolean makesFourInARow(long bb, int bit) {
+		for (int d = 0; d < DIRECTIONS.length; d++) {
+			long m = bb & (bb >>> DIRECTIONS[d]);
+			if ((m & (m >>> (2 * DIRECTIONS[d])) & RUN_STARTS[d][bit]) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Tests if a bitboard holds four checkers in a row in any direction by
+	 * shifting the board onto itself (the sentinel row stops any wrap-around)
+	 * @param long bb (one player's checkers)
+	 * @return boolean (true if there is a 4 in a row)
+	 */
+	static boolean hasFourInARow(long bb) {
+		// Horizontal
+		long m = bb & (bb >>> COL_HEIGHT);
+		if ((m & (m >>> (2 * COL_HEIGHT))) != 0) {return true;}
+		// Positive diagonal
+		m = bb & (bb >>> (COL_HEIGHT + 1));
+		if ((m & (m >>> (2 * (COL_HEIGHT + 1)))) != 0) {return true;}
+		// Negative diagonal
+		m = bb & (bb >>> (COL_HEIGHT - 1));
+		if ((m & (m >>> (2 * (COL_HEIGHT - 1)))) != 0) {return true;}
+		// Vertical
+		m = bb & (bb >>> 1);
+		return (m & (m >>> 2)) != 0;
+	}
+
+	/**
+	 * Builds the RUN_STARTS table: a run of four in direction dir covers a bit
+	 * if it starts 0 to 3 steps before it
+	 * @return long [][] run starts by direction and bit
+	 */
+	private static long [][] runStarts() {
+		long [][] starts = new long[DIRECTIONS.length][Long.SIZE];
+		for (int d = 0; d < DIRECTIONS.length; d++) {
+			for (int bit = 0; bit < Long.SIZE; bit++) {
+				for (int k = 0; k < 4 && bit - k * DIRECTIONS[d] >= 0; k++) {
+					starts[d][bit] |= 1L << (bit - k * DIRECTIONS[d]);
+				}
+			}
+		}
+		return starts;
+	}
+
+	/**
+	 * Builds the Zobrist keys, from a fixed seed so hashes are the same every run
+	 * @return long [][] key by player and bit
+	 */
+	private static long [][] zobristKeys() {
+		java.util.Random random = new java.util.Random(0x436F6E6E65637434L);
+		long [][] keys = new long[2][Long.SIZE];
+		for (int p = 0; p < 2; p++) {
+			for (int bit = 0; bit < Long.SIZE; bit++) {
+				keys[p][bit] = random.nextLong();
+			}
+		}
+		return keys;
+	}
+
+	/**
+	 * Builds the Zobrist keys of the mirror image of each bit: the key of the bit
+	 * in the same row of the column as far from the other side
+	 * @return long [][] key by player and bit (0 for the bits above the columns)
+	 */
+	private static long [][] mirrorZobristKeys() {
+		long [][] keys = new long[2][Long.SIZE];
+		for (int p = 0; p < 2; p++) {
+			for (int c = 0; c < COLS; c++) {
+				for (int r = 0; r < ROWS; r++) {
+					keys[p][c * COL_HEIGHT + r] = ZOBRIST[p][(COLS - 1 - c) * COL_HEIGHT + r];
+				}
+			}
+		}
+		return keys;
+	}
+
+	/**
+	 * Builds the mask holding the bottom bit of every column
+	 * @return long mask
+	 */
+	private static long bottomMask() {
+		long mask = 0;
+		for (int c = 0; c < COLS; c++) {
+			mask |= 1L << (c * COL_HEIGHT);
+		}
+		return mask;
+	}
+}
@@ -0,0 +1,255 @@
+package connect4;
+
+/**
+ * A bare Connect 4 position for the solver and other tools that need to play
+ * millions of moves: just two bitboards and a move count, with no players,
+ * view or evaluation.  It uses the same bit layout as Connect4Game (bit
+ * c*(ROWS+1) + r for row r of column c), but holds the checkers of the player
+ * to move and the mask of all checkers, so playing a move is three operations.
+ *
+ * The static methods work on (current, mask) pairs directly, for searches that
+ * keep positions in local variables instead of objects.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class Connect4Position {
+	// Number of spots on the board
+	public static final int SPOTS = Connect4State.ROWS * Connect4State.COLS;
+
+	// Instance variables
+	private long current;   // Checkers of the player to move
+	private long mask;      // All checkers
+	private int moves;      // Number of checkers on the board
+
+	/**
+	 * Creates the empty position
+	 */
+	public Connect4Position() {
+	}
+
+	/**
+	 * Creates a copy of a position
+	 * @param Connect4Position other
+	 */
+	public Connect4Position(Connect4Position other) {
+		this.current = other.current;
+		this.mask = other.mask;
+		this.moves = other.moves;
+	}
+
+	/**
+	 * Creates the position of a game
+	 * @param Connect4Game game
+	 */
+	public Connect4Position(Connect4Game game) {
+		this.current = game.getBitboard(game.getPlayerNum());
+		this.mask = game.getBitboard(0) | game.getBitboard(1);
+		this.moves = game.getMoveCount();
+	}
+
+	/**
+	 * Creates a position from its bitboards
+	 * @param long current (checkers of the player to move)
+	 * @param long mask (all checkers)
+	 */
+	public Connect4Position(long current, long mask) {
+		this.current = current;
+		this.mask = mask;
+		this.moves = Long.bitCount(mask);
+	}
+
+	/**
+	 * Plays a sequence of moves given as column digits ("3342" plays columns 3, 3, 4 and 2)
+	 * @param String sequence
+	 * @return int number of moves played, which is less than the length of the
+	 *   sequence if a move was not a digit, was not valid or ended the game
+	 */
+	public int play(String sequence) {
+		for (int i = 0; i < sequence.length(); i++) {
+			int col = sequence.charAt(i) - '0';
+			if (col < 0 || col >= Connect4State.COLS || !canPlay(col) || isWinningMove(col)) {
+				return i;
+			}
+			play(col);
+		}
+		return sequence.length();
+	}
+
+	/**
+	 * Gets the checkers of the player to move
+	 * @return long bitboard
+	 */
+	public long getCurrent() {
+		return current;
+	}
+
+	/**
+	 * Gets all checkers
+	 * @return long bitboard
+	 */
+	public long getMask() {
+		return mask;
+	}
+
+	/**
+	 * Gets the number of checkers on the board
+	 * @return int moves
+	 */
+	public int getMoves() {
+		return moves;
+	}
+
+	/**
+	 * Is there room in a column?
+	 * @param int col
+	 * @return boolean (true if a checker can be dropped in the column)
+	 */
+	public boolean canPlay(int col) {
+		return (mask & topMask(col)) == 0;
+	}
+
+	/**
+	 * Drops a checker for the player to move in a column that has room
+	 * @param int col
+	 */
+	public void play(int col) {
+		current ^= mask;
+		mask |= mask + bottomMask(col);
+		moves++;
+	}
+
+	/**
+	 * Would dropping a checker in a column (that has room) win the game?
+	 * @param int col
+	 * @return boolean (true if the move makes 4 in a row)
+	 */
+	public boolean isWinningMove(int col) {
+		return (winningSpots(current, mask) & possible(mask) & columnMask(col)) != 0;
+	}
+
+	/**
+	 * Can the player to move win with the next move?
+	 * @return boolean
+	 */
+	public boolean canWinNext() {
+		return (winningSpots(current, mask) & possible(mask)) != 0;
+	}
+
+	/**
+	 * Gets a key that is different for every position: the checkers of the
+	 * player to move plus the mask, which adds a 1 on top of every column
+	 * @return long key
+	 */
+	public long key() {
+		return current + mask;
+	}
+
+	/**
+	 * Flips a bitboard or key left to right.  The key of a position's mirror
+	 * image is the mirror of its key, as the key of each column only depends
+	 * on that column.
+	 * @param long bitboard
+	 * @return long mirrored bitboard
+	 */
+	public static long mirror(long bitboard) {
+		long mirrored = 0;
+		long columnBits = (1L << Connect4Game.COL_HEIGHT) - 1;
+		for (int col = 0; col < Connect4State.COLS; col++) {
+			long column = (bitboard >>> (col * Connect4Game.COL_HEIGHT)) & columnBits;
+			mirrored |= column << ((Connect4State.COLS - 1 - col) * Connect4Game.COL_HEIGHT);
+		}
+		return mirrored;
+	}
+
+	/**
+	 * Gets the spots a checker can be dropped into directly
+	 * @param long mask (all checkers)
+	 * @return long bitboard
+	 */
+	public static long possible(long mask) {
+		return (mask + Connect4Game.BOTTOM_MASK) & Connect4Game.BOARD_MASK;
+	}
+
+	/**
+	 * Gets the moves that do not hand the opponent a win on the next move.  If the
+	 * opponent threatens to win in one place, that is the only move; if in two
+	 * places, there is none.  Moves right under an opponent's winning spot are left out.
+	 * @param long current (checkers of the player to move)
+	 * @param long mask (all checkers)
+	 * @return long bitboard of one spot per move, or 0 if every move loses
+	 */
+	public static long nonLosingMoves(long current, long mask) {
+		long possibleMoves = possible(mask);
+		long opponentWins = winningSpots(current ^ mask, mask);
+		long forcedMoves = possibleMoves & opponentWins;
+		if (forcedMoves != 0) {
+			// Two threats at once cannot both be blocked
+			if ((forcedMoves & (forcedMoves - 1)) != 0) {
+				return 0;
+			}
+			possibleMoves = forcedMoves;
+		}
+		return possibleMoves & ~(opponentWins >>> 1);
+	}
+
+	/**
+	 * Gets the empty spots (playable now or not) that would complete 4 in a row
+	 * for the given checkers
+	 * @param long position (one player's checkers)
+	 * @param long mask (all checkers)
+	 * @return long bitboard
+	 */
+	public static long winningSpots(long position, long mask) {
+		final int h = Connect4Game.COL_HEIGHT;
+		// Vertical
+		long r = (position << 1) & (position << 2) & (position << 3);
+		// Horizontal, and the two diagonals: each spot needs three checkers in a row
+		// next to it, with the spot at the end of the three or in a gap between them
+		for (int dir = h - 1; dir <= h + 1; dir++) {
+			long p = (position << dir) & (position << (2 * dir));
+			r |= p & (position << (3 * dir));
+			r |= p & (position >>> dir);
+			p = (position >>> dir) & (position >>> (2 * dir));
+			r |= p & (position << dir);
+			r |= p & (position >>> (3 * dir));
+		}
+		return r & (Connect4Game.BOARD_MASK ^ mask);
+	}
+
+	/**
+	 * Gets the mask of the top spot of a column
+	 * @param int col
+	 * @return long mask
+	 */
+	public static long topMask(int col) {
+		return 1L << (Connect4State.ROWS - 1 + col * Connect4Game.COL_HEIGHT);
+	}
+
+	/**
+	 * Gets the mask of the bottom spot of a column
+	 * @param int col
+	 * @return long mask
+	 */
+	public static long bottomMask(int col) {
+		return 1L << (col * Connect4Game.COL_HEIGHT);
+	}
+
+	/**
+	 * Gets the mask of every spot of a column
+	 * @param int col
+	 * @return long mask
+	 */
+	public static long columnMask(int col) {
+		return ((1L << Connect4State.ROWS) - 1) << (col * Connect4Game.COL_HEIGHT);
+	}
+
+	/**
+	 * Gets the column of a single-spot bitboard
+	 * @param long move (bitboard with one bit set)
+	 * @return int column
+	 */
+	public static int column(long move) {
+		return Long.numberOfTrailingZeros(move) / Connect4Game.COL_HEIGHT;
+	}
+} // This brace } ends the Connect4Position Class
@@ -0,0 +1,317 @@
+package connect4;
+
+/**
+ * Finds the exact game-theoretic value of a Connect 4 position: with perfect
+ * play from both sides, who wins and how quickly.  A score is positive when
+ * the player to move wins, negative when they lose, and 0 for a draw; its size
+ * is one more than the number of checkers the winner still has in hand when
+ * they complete 4 in a row, so a faster win scores higher.
+ *
+ * The search is negamax with alpha-beta pruning over bare bitboards (see
+ * Connect4Position), run as a series of null-window searches that narrow
+ * down the score.  It never searches a move that hands the opponent a win,
+ * tries the moves that create the most threats first, keeps a large table of
+ * bounds already proven, and can look positions near the start of the game
+ * up in an opening book.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class Connect4Solver {
+	// Lowest and highest possible scores (the fastest possible win takes 4 checkers each)
+	public static final int MIN_SCORE = -Connect4Position.SPOTS / 2 + 3;
+	public static final int MAX_SCORE = (Connect4Position.SPOTS + 1) / 2 - 3;
+	// Returned by analyze for a full column
+	public static final int INVALID_MOVE = Integer.MIN_VALUE;
+
+	// Memory used by the table if no size is given
+	public static final int DEFAULT_TABLE_MEGABYTES = 64;
+	// Bytes used by one table entry (key and value)
+	private static final int ENTRY_BYTES = 9;
+	// Table values at or above this are lower bounds; below it, upper bounds (0 is empty)
+	private static final int LOWER_BOUND_OFFSET = MAX_SCORE - 2 * MIN_SCORE + 2;
+
+	// Order to try columns in when they make equally many threats: center first
+	private static final int[] CENTER_ORDER = new int[Connect4State.COLS];
+	static {
+		for (int i = 0; i < CENTER_ORDER.length; i++) {
+			CENTER_ORDER[i] = Connect4State.COLS / 2 + (1 - 2 * (i % 2)) * ((i + 1) / 2);
+		}
+	}
+
+	// Instance variables
+	private final long [] tableKeys;      // Key of the position in each table slot
+	private final byte [] tableValues;    // Bound stored for it (0 for an empty slot)
+	private final int tableShift;         // 64 - log2 of the number of slots
+	private final long [][] moveLists;    // Moves to search at each ply, ordered best first
+	private final int [][] moveScores;    // Number of threats made by each of those moves
+	private OpeningBook book;             // Scores of positions near the start (null if none)
+	private long nodeCount;               // Positions searched since the last reset
+
+	/**
+	 * Creates a solver with the default table size
+	 */
+	public Connect4Solver() {
+		this(DEFAULT_TABLE_MEGABYTES);
+	}
+
+	/**
+	 * Creates a solver with a table using about the given amount of memory
+	 * @param int megabytes (memory budget for the table, at least 1)
+	 */
+	public Connect4Solver(int megabytes) {
+		// Use the largest power of 2 number of entries that fits in the budget
+		long entries = Long.highestOneBit(Math.max(1, megabytes) * (1L << 20) / ENTRY_BYTES);
+		entries = Math.min(entries, 1L << 30);
+		this.tableKeys = new long[(int) entries];
+		this.tableValues = new byte[(int) entries];
+		this.tableShift = 64 - Long.numberOfTrailingZeros(entries);
+		this.moveLists = new long[Connect4Position.SPOTS + 1][Connect4State.COLS];
+		this.moveScores = new int[Connect4Position.SPOTS + 1][Connect4State.COLS];
+	}
+
+	/**
+	 * Sets the opening book to look positions near the start of the game up in
+	 * @param OpeningBook book (null for none)
+	 */
+	public void setOpeningBook(OpeningBook book) {
+		this.book = book;
+	}
+
+	/**
+	 * Gets the opening book
+	 * @return OpeningBook book (null if none)
+	 */
+	public OpeningBook getOpeningBook() {
+		return book;
+	}
+
+	/**
+	 * Finds the exact score of a position
+	 * @param Connect4Position position (where the game is not over)
+	 * @return int score for the player to move
+	 */
+	public int solve(Connect4Position position) {
+		return solve(position, false);
+	}
+
+	/**
+	 * Finds the score of a position
+	 * @param Connect4Position position (where the game is not over)
+	 * @param boolean weak (true to only find whether it is a win, draw or loss,
+	 *   returned as 1, 0 or -1, which is much faster)
+	 * @return int score for the player to move
+	 */
+	public int solve(Connect4Position position, boolean weak) {
+		long current = position.getCurrent();
+		long mask = position.getMask();
+		int moves = position.getMoves();
+		if ((Connect4Position.winningSpots(current, mask) & Connect4Position.possible(mask)) != 0) {
+			return weak ? 1 : (Connect4Position.SPOTS + 1 - moves) / 2;
+		}
+		int min = -(Connect4Position.SPOTS - moves) / 2;
+		int max = (Connect4Position.SPOTS + 1 - moves) / 2;
+		if (weak) {
+			min = -1;
+			max = 1;
+		}
+		// Narrow the score down with null-window searches, each of which only
+		// answers whether the score is above a value.  Trying values near 0 first
+		// settles the (more common) close positions sooner.
+		while (min < max) {
+			int med = min + (max - min) / 2;
+			if (med <= 0 && min / 2 < med) {
+				med = min / 2;
+			}
+			else if (med >= 0 && max / 2 > med) {
+				med = max / 2;
+			}
+			int r = negamax(current, mask, moves, med, med + 1);
+			if (r <= med) {
+				max = r;
+			}
+			else {
+				min = r;
+			}
+		}
+		// A null-window search can return a bound past the window, so only keep the sign
+		return weak ? Integer.signum(min) : min;
+	}
+
+	/**
+	 * Finds the exact score of every move in a position
+	 * @param Connect4Position position (where the game is not over)
+	 * @return int [] score of each column for the player to move, or INVALID_MOVE
+	 *   for a full column
+	 */
+	public int[] analyze(Connect4Position position) {
+		int[] scores = new int[Connect4State.COLS];
+		for (int col = 0; col < Connect4State.COLS; col++) {
+			if (!position.canPlay(col)) {
+				scores[col] = INVALID_MOVE;
+			}
+			else if (position.isWinningMove(col)) {
+				scores[col] = (Connect4Position.SPOTS + 1 - position.getMoves()) / 2;
+			}
+			else if (position.getMoves() + 1 == Connect4Position.SPOTS) {
+				scores[col] = 0;
+			}
+			else {
+				Connect4Position next = new Connect4Position(position);
+				next.play(col);
+				scores[col] = -solve(next);
+			}
+		}
+		return scores;
+	}
+
+	/**
+	 * Finds a best move: the one with the highest score, the one nearest the
+	 * center among equally good moves
+	 * @param Connect4Position position (where the game is not over)
+	 * @return int column
+	 */
+	public int bestMove(Connect4Position position) {
+		return bestMove(analyze(position));
+	}
+
+	/**
+	 * Picks a best move out of the scores of all moves
+	 * @param int [] scores (as returned by analyze)
+	 * @return int column
+	 */
+	public static int bestMove(int[] scores) {
+		int best = -1;
+		for (int col : CENTER_ORDER) {
+			if (scores[col] != INVALID_MOVE && (best < 0 || scores[col] > scores[best])) {
+				best = col;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Searches a position (where the player to move cannot win at once)
+	 * @param long current (checkers of the player to move)
+	 * @param long mask (all checkers)
+	 * @param int moves (number of checkers)
+	 * @param int alpha (the score is known to be more than this)
+	 * @param int beta (the score is known to be less than this)
+	 * @return int score, exact if strictly between alpha and beta, otherwise a bound
+	 */
+	private int negamax(long current, long mask, int moves, int alpha, int beta) {
+		nodeCount++;
+		long next = Connect4Position.nonLosingMoves(current, mask);
+		// Every move lets the opponent win next
+		if (next == 0) {
+			return -(Connect4Position.SPOTS - moves) / 2;
+		}
+		// The opponent cannot win with their last checker, so the game is a draw
+		if (moves >= Connect4Position.SPOTS - 2) {
+			return 0;
+		}
+		// The opponent cannot win next move, so cannot win faster than the move after
+		int min = -(Connect4Position.SPOTS - 2 - moves) / 2;
+		if (alpha < min) {
+			alpha = min;
+			if (alpha >= beta) {
+				return alpha;
+			}
+		}
+		// This player cannot win next move, so cannot win faster than the move after
+		int max = (Connect4Position.SPOTS - 1 - moves) / 2;
+		// Use any bound already proven for the position
+		long key = current + mask;
+		int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> tableShift);
+		int stored = tableKeys[slot] == key ? tableValues[slot] : 0;
+		if (stored >= LOWER_BOUND_OFFSET + MIN_SCORE) {
+			min = stored - LOWER_BOUND_OFFSET;
+			if (alpha < min) {
+				alpha = min;
+				if (alpha >= beta) {
+					return alpha;
+				}
+			}
+		}
+		else if (stored != 0) {
+			max = stored + MIN_SCORE - 1;
+		}
+		if (beta > max) {
+			beta = max;
+			if (alpha >= beta) {
+				return beta;
+			}
+		}
+		if (book != null && moves <= book.getPlies()) {
+			int score = book.getScore(key);
+			if (score != OpeningBook.MISSING) {
+				return score;
+			}
+		}
+		// Order the moves by the number of threats they make, center first among equals
+		long[] list = moveLists[moves];
+		int[] scores = moveScores[moves];
+		int count = 0;
+		for (int col : CENTER_ORDER) {
+			long move = next & Connect4Position.columnMask(col);
+			if (move != 0) {
+				int score = Long.bitCount(Connect4Position.winningSpots(current | move, mask));
+				int i = count++;
+				while (i > 0 && scores[i - 1] < score) {
+					list[i] = list[i - 1];
+					scores[i] = scores[i - 1];
+					i--;
+				}
+				list[i] = move;
+				scores[i] = score;
+			}
+		}
+		for (int i = 0; i < count; i++) {
+			// Play the move: the opponent becomes the player to move
+			int score = -negamax(current ^ mask, mask | list[i], moves + 1, -beta, -alpha);
+			if (score >= beta) {
+				store(slot, key, score + LOWER_BOUND_OFFSET);
+				return score;
+			}
+			if (score > alpha) {
+				alpha = score;
+			}
+		}
+		store(slot, key, alpha - MIN_SCORE + 1);
+		return alpha;
+	}
+
+	/**
+	 * Stores a bound in the table, replacing whatever was in the slot
+	 * @param int slot
+	 * @param long key (of the position)
+	 * @param int value (encoded bound)
+	 */
+	private void store(int slot, long key, int value) {
+		tableKeys[slot] = key;
+		tableValues[slot] = (byte) value;
+	}
+
+	/**
+	 * Empties the table
+	 */
+	public void reset() {
+		java.util.Arrays.fill(tableKeys, 0);
+		java.util.Arrays.fill(tableValues, (byte) 0);
+	}
+
+	/**
+	 * Gets the number of positions searched since the count was reset
+	 * @return long nodeCount
+	 */
+	public long getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Resets the count of positions searched
+	 */
+	public void resetNodeCount() {
+		nodeCount = 0;
+	}
+} // This brace } ends the Connect4Solver Class
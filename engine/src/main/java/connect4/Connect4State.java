@@ -54,6 +54,12 @@ public interface Connect4State {
    */
   public void makeMove(int col);
   
+  /**
+   * Take back the last move, which dropped a checker in the given column
+   * @param col the column that got the last checker
+   */
+  public void undoMove(int col);
+  
  
   /**
    * Is the board full?
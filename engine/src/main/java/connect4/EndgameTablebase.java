@@ -0,0 +1,392 @@
+package connect4;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Exact scores (see Connect4Solver) and best moves of late positions, with at
+ * most a set number of empty spots, built by retrograde analysis: every
+ * position one move from a full board is scored first, then every position
+ * one move earlier from the scores of its moves, and so on back to the
+ * earliest positions.  The tablebase is a memory-mapped file (see
+ * ScoredPositionFile), magic number "C4TB", with the number of empty spots
+ * in the header.
+ *
+ * There are far too many late positions to hold all of them, so a tablebase
+ * holds every position that can follow from a set of seed positions: ones
+ * given by the caller (say, from recorded games) or sampled from quick random
+ * games that avoid giving away wins.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class EndgameTablebase {
+	// Returned by getScore when the position is not in the tablebase
+	public static final int MISSING = ScoredPositionFile.MISSING;
+
+	// First bytes of a tablebase file, and the version of the format
+	private static final int MAGIC = 0x43345442;
+	private static final int VERSION = 1;
+
+	// Instance variables
+	private final ScoredPositionFile entries;   // The mapped file
+
+	/**
+	 * Opens a tablebase file
+	 * @param File file
+	 * @throws IOException (also if the file is not a tablebase)
+	 */
+	public EndgameTablebase(File file) throws IOException {
+		entries = new ScoredPositionFile(file, MAGIC, VERSION);
+	}
+
+	/**
+	 * Gets the most empty spots a position in the tablebase can have
+	 * @return int empties
+	 */
+	public int getEmpties() {
+		return entries.getParameter();
+	}
+
+	/**
+	 * Gets the number of positions in the tablebase (counting a position and its mirror image once)
+	 * @return int size
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Looks the score of a position up
+	 * @param long key (see Connect4Position.key)
+	 * @return int score for the player to move, or MISSING
+	 */
+	public int getScore(long key) {
+		return entries.getScore(key);
+	}
+
+	/**
+	 * Looks the best move of a position up
+	 * @param Connect4Position position
+	 * @return int column, or -1 if the position is not in the tablebase
+	 */
+	public int getMove(Connect4Position position) {
+		return entries.getMove(position.key());
+	}
+
+	/**
+	 * Plays quick random games to get seed positions.  Each game plays random
+	 * moves that neither win nor let the opponent win next, and is thrown away
+	 * if there are none, until the board has the given number of empty spots.
+	 * @param int count (number of seeds)
+	 * @param int empties
+	 * @param long randomSeed
+	 * @return Connect4Position [] seeds
+	 */
+	public static Connect4Position[] sampleSeeds(int count, int empties, long randomSeed) {
+		Random random = new Random(randomSeed);
+		Connect4Position[] seeds = new Connect4Position[count];
+		int[] choices = new int[Connect4State.COLS];
+		for (int i = 0; i < count; ) {
+			Connect4Position position = new Connect4Position();
+			while (position.getMoves() < Connect4Position.SPOTS - empties) {
+				long moves = Connect4Position.nonLosingMoves(position.getCurrent(), position.getMask());
+				int n = 0;
+				for (int col = 0; col < Connect4State.COLS; col++) {
+					if ((moves & Connect4Position.columnMask(col)) != 0 && !position.isWinningMove(col)) {
+						choices[n++] = col;
+					}
+				}
+				if (n == 0) {
+					break;
+				}
+				position.play(choices[random.nextInt(n)]);
+			}
+			if (position.getMoves() == Connect4Position.SPOTS - empties) {
+				seeds[i++] = position;
+			}
+		}
+		return seeds;
+	}
+
+	/**
+	 * Builds a tablebase of every position that can follow from the seeds, up
+	 * to a number of empty spots, and writes the file
+	 * @param Connect4Position [] seeds (positions where the game is not over)
+	 * @param int empties (the most empty spots a position can have; seeds with more are left out)
+	 * @param int threads (number of threads to build with; at least 1 is used)
+	 * @param File file
+	 * @return int number of positions written
+	 * @throws IOException
+	 */
+	public static int build(Connect4Position[] seeds, int empties, int threads, File file) throws IOException {
+		final int workers = Math.max(1, threads);
+		final int first = Math.max(0, Connect4Position.SPOTS - empties);
+		final int last = Connect4Position.SPOTS - 1;
+		// The positions with each number of checkers, by the smaller key of the
+		// position and its mirror image, in increasing order
+		final long[][] layers = new long[Connect4Position.SPOTS][];
+		for (int moves = first; moves <= last; moves++) {
+			int n = 0;
+			long[] keys = new long[seeds.length];
+			for (Connect4Position seed : seeds) {
+				if (seed.getMoves() == moves) {
+					keys[n++] = canonicalKey(seed.key());
+				}
+			}
+			if (moves > first) {
+				// Add every position one move on from the layer before
+				long[][] children = new long[workers][];
+				final long[] parents = layers[moves - 1];
+				inParallel(workers, parents.length, (part, from, to) -> children[part] = childKeys(parents, from, to));
+				for (long[] part : children) {
+					keys = append(keys, n, part);
+					n += part.length;
+				}
+			}
+			layers[moves] = unique(keys, n);
+		}
+		// Score the layers from the last to the first, each from the scores of the one after
+		final long[][] packed = new long[Connect4Position.SPOTS][];
+		final byte[][] scores = new byte[Connect4Position.SPOTS][];
+		for (int moves = last; moves >= first; moves--) {
+			final long[] keys = layers[moves];
+			final long[] nextKeys = moves < last ? layers[moves + 1] : null;
+			final byte[] nextScores = moves < last ? scores[moves + 1] : null;
+			final long[] layerPacked = new long[keys.length];
+			final byte[] layerScores = new byte[keys.length];
+			inParallel(workers, keys.length, (part, from, to) -> {
+				for (int i = from; i < to; i++) {
+					layerPacked[i] = score(keys[i], nextKeys, nextScores);
+					layerScores[i] = (byte) ScoredPositionFile.score(layerPacked[i]);
+				}
+			});
+			packed[moves] = layerPacked;
+			scores[moves] = layerScores;
+			// The layer after this one is no longer needed
+			if (moves < last) {
+				scores[moves + 1] = null;
+				layers[moves + 1] = null;
+			}
+		}
+		long[] all = new long[0];
+		for (int moves = first; moves <= last; moves++) {
+			all = append(all, all.length, packed[moves]);
+		}
+		ScoredPositionFile.write(file, MAGIC, VERSION, empties, all);
+		return all.length;
+	}
+
+	/**
+	 * Finds the score and best move of a position from the scores of the positions after it
+	 * @param long key (of the position, the way round kept in the tablebase)
+	 * @param long [] nextKeys (positions with one more checker, in increasing order, or null if the board is then full)
+	 * @param byte [] nextScores (their scores)
+	 * @return long entry for the file
+	 */
+	private static long score(long key, long[] nextKeys, byte[] nextScores) {
+		long current = currentOf(key);
+		long mask = maskOf(key);
+		int moves = Long.bitCount(mask);
+		int[] moveScores = new int[Connect4State.COLS];
+		long winning = Connect4Position.winningSpots(current, mask) & Connect4Position.possible(mask);
+		for (int col = 0; col < Connect4State.COLS; col++) {
+			if ((mask & Connect4Position.topMask(col)) != 0) {
+				moveScores[col] = Connect4Solver.INVALID_MOVE;
+			}
+			else if ((winning & Connect4Position.columnMask(col)) != 0) {
+				moveScores[col] = (Connect4Position.SPOTS + 1 - moves) / 2;
+			}
+			else if (moves + 1 == Connect4Position.SPOTS) {
+				moveScores[col] = 0;
+			}
+			else {
+				// Play the move: the opponent becomes the player to move
+				long nextMask = mask | (mask + Connect4Position.bottomMask(col));
+				long nextKey = canonicalKey((current ^ mask) + nextMask);
+				moveScores[col] = -nextScores[Arrays.binarySearch(nextKeys, nextKey)];
+			}
+		}
+		int move = Connect4Solver.bestMove(moveScores);
+		return ScoredPositionFile.entry(key, moveScores[move], move);
+	}
+
+	/**
+	 * Lists the positions one move on (other than wins) from some of a layer's positions
+	 * @param long [] parents (keys of the layer)
+	 * @param int from (first index to expand)
+	 * @param int to (index after the last to expand)
+	 * @return long [] keys of the positions, possibly with repeats
+	 */
+	private static long[] childKeys(long[] parents, int from, int to) {
+		long[] children = new long[Math.max(16, (to - from) * 4)];
+		int n = 0;
+		for (int i = from; i < to; i++) {
+			long current = currentOf(parents[i]);
+			long mask = maskOf(parents[i]);
+			long winning = Connect4Position.winningSpots(current, mask) & Connect4Position.possible(mask);
+			for (int col = 0; col < Connect4State.COLS; col++) {
+				if ((mask & Connect4Position.topMask(col)) == 0 && (winning & Connect4Position.columnMask(col)) == 0) {
+					long nextMask = mask | (mask + Connect4Position.bottomMask(col));
+					if (n == children.length) {
+						children = Arrays.copyOf(children, 2 * n);
+					}
+					children[n++] = canonicalKey((current ^ mask) + nextMask);
+				}
+			}
+		}
+		return Arrays.copyOf(children, n);
+	}
+
+	/**
+	 * Gets the smaller of a key and the key of the mirror image
+	 * @param long key
+	 * @return long canonical key
+	 */
+	private static long canonicalKey(long key) {
+		return Math.min(key, Connect4Position.mirror(key));
+	}
+
+	/**
+	 * Gets all checkers back out of a key.  Each column of a key is the
+	 * column's checkers of the player to move plus (2 to the height) - 1.
+	 * @param long key
+	 * @return long mask
+	 */
+	private static long maskOf(long key) {
+		long mask = 0;
+		for (int col = 0; col < Connect4State.COLS; col++) {
+			int column = (int) (key >>> (col * Connect4Game.COL_HEIGHT)) & ((1 << Connect4Game.COL_HEIGHT) - 1);
+			int height = 31 - Integer.numberOfLeadingZeros(column + 1);
+			mask |= (long) ((1 << height) - 1) << (col * Connect4Game.COL_HEIGHT);
+		}
+		return mask;
+	}
+
+	/**
+	 * Gets the checkers of the player to move back out of a key
+	 * @param long key
+	 * @return long current
+	 */
+	private static long currentOf(long key) {
+		return key - maskOf(key);
+	}
+
+	/**
+	 * Sorts keys and removes repeats
+	 * @param long [] keys
+	 * @param int n (number of keys used)
+	 * @return long [] the distinct keys, in increasing order
+	 */
+	private static long[] unique(long[] keys, int n) {
+		Arrays.parallelSort(keys, 0, n);
+		int distinct = 0;
+		for (int i = 0; i < n; i++) {
+			if (distinct == 0 || keys[i] != keys[distinct - 1]) {
+				keys[distinct++] = keys[i];
+			}
+		}
+		return Arrays.copyOf(keys, distinct);
+	}
+
+	/**
+	 * Appends one array to the used part of another
+	 * @param long [] array
+	 * @param int n (number of entries used)
+	 * @param long [] more
+	 * @return long [] array (a bigger copy if needed)
+	 */
+	private static long[] append(long[] array, int n, long[] more) {
+		if (n + more.length > array.length) {
+			array = Arrays.copyOf(array, Math.max(n + more.length, 2 * array.length));
+		}
+		System.arraycopy(more, 0, array, n, more.length);
+		return array;
+	}
+
+	/**
+	 * Work on a range of indexes, done by one thread
+	 */
+	private interface RangeTask {
+		/**
+		 * Works on the indexes from to to-1
+		 * @param int part (number of the range, from 0)
+		 * @param int from
+		 * @param int to
+		 */
+		void run(int part, int from, int to);
+	}
+
+	/**
+	 * Splits the indexes 0 to n-1 into one range per thread and works on the
+	 * ranges at the same time.  If the work fails on any thread, it fails on
+	 * the calling thread too, once every thread has finished.
+	 * @param int threads
+	 * @param int n
+	 * @param RangeTask task
+	 */
+	private static void inParallel(int threads, int n, RangeTask task) {
+		Thread[] helpers = new Thread[threads - 1];
+		Throwable [] failures = new Throwable[threads];
+		for (int t = 1; t < threads; t++) {
+			final int part = t;
+			helpers[t - 1] = new Thread(() -> {
+				try {
+					task.run(part, (int) ((long) n * part / threads), (int) ((long) n * (part + 1) / threads));
+				}
+				catch (Throwable ex) {
+					failures[part] = ex;
+				}
+			});
+			helpers[t - 1].start();
+		}
+		try {
+			task.run(0, 0, (int) ((long) n / threads));
+		}
+		catch (Throwable ex) {
+			failures[0] = ex;
+		}
+		for (Thread helper : helpers) {
+			try {
+				helper.join();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while building the tablebase");
+			}
+		}
+		// The task throws no checked exceptions, so each failure is unchecked
+		for (Throwable failure : failures) {
+			if (failure instanceof Error) {
+				throw (Error) failure;
+			}
+			if (failure != null) {
+				throw (RuntimeException) failure;
+			}
+		}
+	}
+
+	/**
+	 * Builds a tablebase file from sampled seeds
+	 * @param String [] args (empty spots, number of seeds, file name, and optionally the
+	 *   number of threads, which defaults to the number of processors)
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3) {
+			System.err.println("Usage: java connect4.EndgameTablebase <empty spots> <seeds> <file> [threads]");
+			System.exit(1);
+		}
+		int empties = Integer.parseInt(args[0]);
+		int seeds = Integer.parseInt(args[1]);
+		File file = new File(args[2]);
+		int threads = Math.max(1, args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors());
+		long start = System.currentTimeMillis();
+		int count = build(sampleSeeds(seeds, empties, 1), empties, threads, file);
+		System.out.println("K=" + empties + ": " + count + " positions from " + seeds + " seeds in "
+				+ (System.currentTimeMillis() - start) + " ms with " + threads + " threads, "
+				+ file.length() + " bytes");
+	}
+} // This brace } ends the EndgameTablebase Class
@@ -0,0 +1,266 @@
+package connect4;
+
+/**
+ * The settings of a computer player, written as a short spec so matches can
+ * be set up from the command line.  A spec is the kind of player, optionally
+ * followed by a colon and comma-separated settings, for example
+ *   computer:depth=10              alpha-beta search 10 moves ahead
+ *   computer:time=100,threads=2    alpha-beta search for 100 ms a move on 2 threads
+ *   mcts:iterations=20000          Monte Carlo tree search
+ *   solver                         perfect play
+ *
+ * Settings of a computer player: depth, time (milliseconds per move), threads,
+ * table (transposition table megabytes, 0 for none), window (aspiration
+ * window), algorithm (alpha_beta, pvs or mtdf), eval (table or legacy, see
+ * Evaluator), book and tablebase (true or false, whether to use them if they
+ * are given), and experience (fewest games a move must have been played in
+ * to play it from the position index, see Connect4.INDEX_DIR; 0, the default,
+ * to not use it).
+ * Of a Monte Carlo player: iterations, time, threads, exploration and nodes.
+ * Of a solver: table (at least 1) and book.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class EngineConfig {
+	// The kinds of player
+	public enum Kind { COMPUTER, MCTS, SOLVER }
+
+	// Search depth of a computer player if none is given (and it has no time limit)
+	public static final int DEFAULT_DEPTH = 8;
+
+	// Instance variables
+	private final String spec;		// The spec the settings were read from
+	private final Kind kind;		// Kind of player
+	private int depth;				// Horizon (0 if not given)
+	private long moveTime;			// Milliseconds per move (0 for none)
+	private int threads = 1;		// Threads to search with
+	private int tableMegabytes = -1;	// Memory for the table (-1 for the player's default)
+	private int aspirationWindow;	// Half width of the aspiration window (0 for none)
+	private SearchAlgorithm algorithm = SearchAlgorithm.ALPHA_BETA;	// How a computer player searches
+	private boolean legacyEval;		// True for a computer player to use LegacyEvaluator
+	private boolean useBook = true;			// True to use the opening book, if given
+	private boolean useTablebase = true;	// True to use the endgame tablebase, if given
+	private int experienceGames;			// Games a move needs to be played from the position index (0 to not use it)
+	private int iterations = MctsConnect4Player.DEFAULT_ITERATIONS;	// Games per move of a Monte Carlo player
+	private double exploration = MctsConnect4Player.DEFAULT_EXPLORATION;	// Its UCT exploration weight
+	private int nodes = MctsConnect4Player.DEFAULT_NODES;	// Size of its node pool
+
+	/**
+	 * Creates the settings of a kind of player, to be filled in by parse
+	 * @param String spec
+	 * @param Kind kind
+	 */
+	private EngineConfig(String spec, Kind kind) {
+		this.spec = spec;
+		this.kind = kind;
+	}
+
+	/**
+	 * Reads a spec
+	 * @param String spec (as described above)
+	 * @return EngineConfig
+	 * @throws IllegalArgumentException if the kind, a setting or a value is not valid
+	 */
+	public static EngineConfig parse(String spec) {
+		String trimmed = spec.trim();
+		int colon = trimmed.indexOf(':');
+		String kindName = colon < 0 ? trimmed : trimmed.substring(0, colon);
+		Kind kind;
+		try {
+			kind = Kind.valueOf(kindName.trim().toUpperCase());
+		}
+		catch (IllegalArgumentException ex) {
+			throw new IllegalArgumentException("Unknown kind of player '" + kindName + "' in " + spec);
+		}
+		EngineConfig config = new EngineConfig(trimmed, kind);
+		if (colon < 0 || colon == trimmed.length() - 1) {
+			return config;
+		}
+		for (String setting : trimmed.substring(colon + 1).split(",")) {
+			int equals = setting.indexOf('=');
+			if (equals < 0) {
+				throw new IllegalArgumentException("Setting '" + setting + "' has no value in " + spec);
+			}
+			String key = setting.substring(0, equals).trim().toLowerCase();
+			String value = setting.substring(equals + 1).trim();
+			try {
+				config.set(key, value);
+			}
+			catch (NumberFormatException ex) {
+				throw new IllegalArgumentException("Setting '" + key + "' needs a number, not '" + value + "', in " + spec);
+			}
+		}
+		return config;
+	}
+
+	/**
+	 * Applies one setting
+	 * @param String key
+	 * @param String value
+	 * @throws IllegalArgumentException if the setting does not apply to this kind of player
+	 */
+	private void set(String key, String value) {
+		boolean computer = kind == Kind.COMPUTER;
+		boolean mcts = kind == Kind.MCTS;
+		if (key.equals("depth") && computer) {
+			depth = Integer.parseInt(value);
+		}
+		else if (key.equals("time") && (computer || mcts)) {
+			moveTime = Long.parseLong(value);
+		}
+		else if (key.equals("threads") && (computer || mcts)) {
+			threads = Integer.parseInt(value);
+		}
+		else if (key.equals("table") && !mcts) {
+			// A computer player can search without a table, but a solver needs one
+			tableMegabytes = this.parseAtLeast(key, value, computer ? 0 : 1);
+		}
+		else if (key.equals("window") && computer) {
+			aspirationWindow = Integer.parseInt(value);
+		}
+		else if (key.equals("algorithm") && computer) {
+			try {
+				algorithm = SearchAlgorithm.valueOf(value.toUpperCase());
+			}
+			catch (IllegalArgumentException ex) {
+				throw new IllegalArgumentException("Unknown search algorithm '" + value + "' in " + spec);
+			}
+		}
+		else if (key.equals("eval") && computer) {
+			if (!value.equalsIgnoreCase("table") && !value.equalsIgnoreCase("legacy")) {
+				throw new IllegalArgumentException("Unknown evaluation '" + value + "' in " + spec);
+			}
+			legacyEval = value.equalsIgnoreCase("legacy");
+		}
+		else if (key.equals("book") && !mcts) {
+			useBook = Boolean.parseBoolean(value);
+		}
+		else if (key.equals("tablebase") && computer) {
+			useTablebase = Boolean.parseBoolean(value);
+		}
+		else if (key.equals("experience") && computer) {
+			experienceGames = Integer.parseInt(value);
+		}
+		else if (key.equals("iterations") && mcts) {
+			iterations = this.parseAtLeast(key, value, 1);
+		}
+		else if (key.equals("exploration") && mcts) {
+			exploration = Double.parseDouble(value);
+		}
+		else if (key.equals("nodes") && mcts) {
+			nodes = this.parseAtLeast(key, value, MctsConnect4Player.MIN_NODES);
+		}
+		else {
+			throw new IllegalArgumentException("Setting '" + key + "' does not apply to " + kind.name().toLowerCase() + " players in " + spec);
+		}
+	}
+
+	/**
+	 * Reads the value of a setting that is a whole number with a smallest value
+	 * @param String key
+	 * @param String value
+	 * @param int min (smallest value allowed)
+	 * @return int
+	 * @throws IllegalArgumentException if the value is smaller
+	 */
+	private int parseAtLeast(String key, String value, int min) {
+		int number = Integer.parseInt(value);
+		if (number < min) {
+			throw new IllegalArgumentException("Setting '" + key + "' needs a number of at least " + min + ", not " + number + ", in " + spec);
+		}
+		return number;
+	}
+
+	/**
+	 * Gets the kind of player
+	 * @return Kind kind
+	 */
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * Gets the depth a computer player searches to
+	 * @return int (its horizon, or 0 for a time limit or another kind of player)
+	 */
+	public int getDepth() {
+		if (kind != Kind.COMPUTER) {
+			return 0;
+		}
+		return depth > 0 ? depth : moveTime > 0 ? 0 : DEFAULT_DEPTH;
+	}
+
+	/**
+	 * Creates a player with these settings.  Each call makes a new player with
+	 * its own tables, so players made from the same settings can play at the
+	 * same time on different threads.
+	 * @param String name
+	 * @param OpeningBook book (null for none)
+	 * @param EndgameTablebase tablebase (null for none)
+	 * @return Player
+	 */
+	public Player createPlayer(String name, OpeningBook book, EndgameTablebase tablebase) {
+		if (kind == Kind.SOLVER) {
+			SolverConnect4Player player = tableMegabytes < 0 ? new SolverConnect4Player(name) : new SolverConnect4Player(name, tableMegabytes);
+			player.setOpeningBook(useBook ? book : null);
+			return player;
+		}
+		if (kind == Kind.MCTS) {
+			MctsConnect4Player player = new MctsConnect4Player(name, nodes);
+			player.setIterations(iterations);
+			player.setMoveTime(moveTime);
+			player.setExploration(exploration);
+			player.setThreads(threads);
+			return player;
+		}
+		// With a time limit and no horizon, look as far ahead as time allows
+		int horizon = depth > 0 ? depth : moveTime > 0 ? Connect4Position.SPOTS : DEFAULT_DEPTH;
+		ComputerConnect4Player player = new ComputerConnect4Player(name, horizon,
+				tableMegabytes < 0 ? ComputerConnect4Player.DEFAULT_TABLE_MEGABYTES : tableMegabytes);
+		player.setSearchAlgorithm(algorithm);
+		if (legacyEval) {
+			player.setEvaluator(new LegacyEvaluator());
+		}
+		player.setAspirationWindow(aspirationWindow);
+		player.setMoveTime(moveTime);
+		player.setThreads(threads);
+		player.setOpeningBook(useBook ? book : null);
+		player.setEndgameTablebase(useTablebase ? tablebase : null);
+		if (experienceGames > 0) {
+			PositionIndex index = Connect4.positionIndex(new NullConnect4View());
+			if (index == null) {
+				throw new IllegalArgumentException("No position index in " + Connect4.INDEX_DIR + " for " + spec);
+			}
+			player.setExperienceBook(index, experienceGames);
+		}
+		return player;
+	}
+
+	/**
+	 * Gets how much work a player did for its last move: positions searched,
+	 * or games played by a Monte Carlo player
+	 * @param Player player (made by createPlayer)
+	 * @return long nodes (0 for other players)
+	 */
+	public static long nodeCount(Player player) {
+		if (player instanceof ComputerConnect4Player) {
+			return ((ComputerConnect4Player) player).getNodeCount();
+		}
+		if (player instanceof MctsConnect4Player) {
+			return ((MctsConnect4Player) player).getGamesPlayed();
+		}
+		if (player instanceof SolverConnect4Player) {
+			return ((SolverConnect4Player) player).getNodeCount();
+		}
+		return 0;
+	}
+
+	/**
+	 * Gets the spec the settings were read from
+	 * @return String spec
+	 */
+	public String toString() {
+		return spec;
+	}
+} // This brace } ends the EngineConfig Class
@@ -0,0 +1,21 @@
+package connect4;
+
+/**
+ * A static evaluation function: an estimate of how good a position is for a
+ * player, used by ComputerConnect4Player where the search stops looking ahead.
+ * Higher is better for the player.  An evaluator must not change the state,
+ * and one evaluator is shared by all the threads of a search.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public interface Evaluator {
+
+	/**
+	 * Evaluates a position for a player
+	 * @param Connect4Game state
+	 * @param int playerNum (player to score the board for)
+	 * @return int (score of board for player)
+	 */
+	public int evaluate(Connect4Game state, int playerNum);
+}
@@ -0,0 +1,193 @@
+package connect4;
+
+/**
+ * A finished (or abandoned) game as it is kept in a game record file (see
+ * GameRecordWriter): the two players' names and search depths, the result,
+ * every move, and optionally the time taken for each move.  Replaying a
+ * record makes its moves on a Connect4Game, so the positions of a game can be
+ * looked at without ever building a 2-D board.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class GameRecord {
+	// Results
+	public static final int FIRST_WINS = 0;		// The player who moved first made a 4 in a row
+	public static final int SECOND_WINS = 1;	// The other player did
+	public static final int DRAW = 2;			// The board filled up
+	public static final int UNFINISHED = 3;		// The game was stopped before it was over
+
+	// The view of replayed games, which shows nothing
+	private static final Connect4View VIEW = new NullConnect4View();
+
+	// Instance variables
+	private final String [] players;	// Names of the player who moved first and the other
+	private final int [] depths;		// Their search depths (0 if not known or not searching to a set depth)
+	private final int result;			// One of the results above
+	private final byte [] moves;		// Columns of the moves, in order
+	private final long [] moveMicros;	// Microseconds taken for each move (null if not recorded)
+
+	/**
+	 * Creates a record
+	 * @param String [] players (names of the player who moved first and the other)
+	 * @param int [] depths (their search depths, 0 if not known)
+	 * @param int result (FIRST_WINS, SECOND_WINS, DRAW or UNFINISHED)
+	 * @param byte [] moves (columns, in order)
+	 * @param long [] moveMicros (microseconds taken for each move, or null)
+	 * @throws IllegalArgumentException if the result is not one of the results, a move is not a
+	 *   column, a depth or time is negative, or the times do not match the moves
+	 */
+	public GameRecord(String [] players, int [] depths, int result, byte [] moves, long [] moveMicros) {
+		if (result < FIRST_WINS || result > UNFINISHED) {
+			throw new IllegalArgumentException("Unknown result " + result);
+		}
+		if (moveMicros != null && moveMicros.length != moves.length) {
+			throw new IllegalArgumentException(moveMicros.length + " move times for " + moves.length + " moves");
+		}
+		for (int ply = 0; ply < moves.length; ply++) {
+			if (moves[ply] < 0 || moves[ply] >= Connect4State.COLS || (moveMicros != null && moveMicros[ply] < 0)) {
+				throw new IllegalArgumentException("Move " + ply + " is not valid");
+			}
+		}
+		if (depths[0] < 0 || depths[1] < 0) {
+			throw new IllegalArgumentException("Negative depth");
+		}
+		this.players = players.clone();
+		this.depths = depths.clone();
+		this.result = result;
+		this.moves = moves;
+		this.moveMicros = moveMicros;
+	}
+
+	/**
+	 * Gets the result of a game
+	 * @param Connect4Game state (at the end of the game, or where it was stopped)
+	 * @return int (FIRST_WINS, SECOND_WINS, DRAW or UNFINISHED)
+	 */
+	public static int result(Connect4Game state) {
+		if (!state.gameIsOver()) {
+			return UNFINISHED;
+		}
+		return state.getWinner() == Connect4Game.NO_WINNER ? DRAW : state.getWinner();
+	}
+
+	/**
+	 * Gets the depth a player searches to, for a record
+	 * @param Player player
+	 * @return int (the horizon of a computer player without a time limit, otherwise 0)
+	 */
+	public static int depth(Player player) {
+		if (player instanceof ComputerConnect4Player && ((ComputerConnect4Player) player).getMoveTime() == 0) {
+			return ((ComputerConnect4Player) player).getDepth();
+		}
+		return 0;
+	}
+
+	/**
+	 * Gets the name of a player
+	 * @param int playerNum (0 for the player who moved first)
+	 * @return String name
+	 */
+	public String getPlayer(int playerNum) {
+		return players[playerNum];
+	}
+
+	/**
+	 * Gets the search depth of a player
+	 * @param int playerNum (0 for the player who moved first)
+	 * @return int depth (0 if not known)
+	 */
+	public int getDepth(int playerNum) {
+		return depths[playerNum];
+	}
+
+	/**
+	 * Gets the result
+	 * @return int (FIRST_WINS, SECOND_WINS, DRAW or UNFINISHED)
+	 */
+	public int getResult() {
+		return result;
+	}
+
+	/**
+	 * Gets the number of moves
+	 * @return int
+	 */
+	public int getMoveCount() {
+		return moves.length;
+	}
+
+	/**
+	 * Gets a move
+	 * @param int ply (0 for the first move)
+	 * @return int column
+	 */
+	public int getMove(int ply) {
+		return moves[ply];
+	}
+
+	/**
+	 * Gets every move as column digits (as the analyzer and the openings files take them)
+	 * @return String moves
+	 */
+	public String getMoves() {
+		char [] digits = new char[moves.length];
+		for (int ply = 0; ply < moves.length; ply++) {
+			digits[ply] = (char) ('0' + moves[ply]);
+		}
+		return new String(digits);
+	}
+
+	/**
+	 * Tells whether the time of each move was recorded
+	 * @return boolean
+	 */
+	public boolean hasMoveTimes() {
+		return moveMicros != null;
+	}
+
+	/**
+	 * Gets the time taken for a move
+	 * @param int ply (0 for the first move)
+	 * @return long microseconds (0 if times were not recorded)
+	 */
+	public long getMoveMicros(int ply) {
+		return moveMicros == null ? 0 : moveMicros[ply];
+	}
+
+	/**
+	 * Plays the game's moves on a new game state
+	 * @return Connect4Game (the position at the end of the game)
+	 * @throws IllegalStateException if a move is not valid
+	 */
+	public Connect4Game replay() {
+		return this.replay(moves.length);
+	}
+
+	/**
+	 * Plays the game's first moves on a new game state
+	 * @param int plies (number of moves to make)
+	 * @return Connect4Game (the position after them)
+	 * @throws IllegalStateException if a move is not valid
+	 */
+	public Connect4Game replay(int plies) {
+		Connect4Game state = new Connect4Game(0, new Player[2], VIEW);
+		for (int ply = 0; ply < plies; ply++) {
+			if (state.gameIsOver() || !state.isValidMove(moves[ply])) {
+				throw new IllegalStateException("Invalid move at ply " + ply + " of " + this.getMoves());
+			}
+			state.makeMove(moves[ply]);
+		}
+		return state;
+	}
+
+	/**
+	 * Gets the record as one line of text
+	 * @return String
+	 */
+	public String toString() {
+		String [] results = {"1-0", "0-1", "draw", "unfinished"};
+		return players[0] + " (" + depths[0] + ") vs " + players[1] + " (" + depths[1] + "): "
+				+ results[result] + " " + this.getMoves();
+	}
+} // This brace } ends the GameRecord Class
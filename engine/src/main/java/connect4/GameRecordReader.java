@@ -0,0 +1,236 @@
+package connect4;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the games of a game record file (see GameRecordWriter for the
+ * format) one at a time, so a file of any size can be streamed.  Records
+ * can only be decoded in order, since one may take its players from the
+ * record before.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class GameRecordReader implements Closeable {
+	// Most moves a game can have
+	private static final int MAX_MOVES = Connect4State.ROWS * Connect4State.COLS;
+
+	// Instance variables
+	private final DataInputStream in;		// The file
+	private byte [] record = new byte[256];	// Record being decoded
+	private int position;					// Next byte of it to decode
+	private int length;						// Its length
+	private String [] players;				// Players of the last record (null before the first)
+	private int [] depths;					// Their depths
+	private long count;						// Records read
+
+	/**
+	 * Opens a game record file
+	 * @param File file
+	 * @throws IOException (also if it is not a game record file)
+	 */
+	public GameRecordReader(File file) throws IOException {
+		this(new FileInputStream(file));
+	}
+
+	/**
+	 * Starts reading a game record file from a stream
+	 * @param InputStream in
+	 * @throws IOException (also if it is not a game record file)
+	 */
+	public GameRecordReader(InputStream in) throws IOException {
+		this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+		try {
+			if (this.in.readInt() != GameRecordWriter.MAGIC || this.in.readInt() != GameRecordWriter.VERSION) {
+				throw new IOException("Not a game record file");
+			}
+		}
+		catch (IOException ex) {
+			this.in.close();
+			throw ex instanceof EOFException ? new IOException("Not a game record file") : ex;
+		}
+	}
+
+	/**
+	 * Tells whether a file is a game record file
+	 * @param File file
+	 * @return boolean (true if it starts with the magic number and version)
+	 * @throws IOException if the file cannot be read
+	 */
+	public static boolean isRecordFile(File file) throws IOException {
+		DataInputStream in = new DataInputStream(new FileInputStream(file));
+		try {
+			return file.length() >= 8 && in.readInt() == GameRecordWriter.MAGIC && in.readInt() == GameRecordWriter.VERSION;
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads the next game
+	 * @return GameRecord (null at the end of the file)
+	 * @throws IOException (also if the record is cut off or not valid)
+	 */
+	public GameRecord read() throws IOException {
+		// The length in front of the record, or the end of the file
+		int first = in.read();
+		if (first < 0) {
+			return null;
+		}
+		long size = first & 0x7F;
+		for (int shift = 7; (first & 0x80) != 0; shift += 7) {
+			first = in.readUnsignedByte();
+			size |= (long) (first & 0x7F) << shift;
+			if (shift > 28) {
+				throw new IOException("Record " + count + " is too long");
+			}
+		}
+		// Check the length before making room for it, in case the file is corrupt
+		if (size > GameRecordWriter.MAX_RECORD_BYTES) {
+			throw new IOException("Record " + count + " is too long");
+		}
+		if (size > record.length) {
+			record = new byte[(int) size];
+		}
+		length = (int) size;
+		position = 0;
+		try {
+			in.readFully(record, 0, length);
+		}
+		catch (EOFException ex) {
+			throw new IOException("Record " + count + " is cut off");
+		}
+		GameRecord game = this.decode();
+		count++;
+		return game;
+	}
+
+	/**
+	 * Decodes the record read
+	 * @return GameRecord
+	 * @throws IOException if it is not valid
+	 */
+	private GameRecord decode() throws IOException {
+		int flags = this.readByte();
+		if ((flags & (GameRecordWriter.SAME_PLAYERS | GameRecordWriter.SWAPPED_PLAYERS)) != 0) {
+			if (players == null) {
+				throw new IOException("Record " + count + " has the players of a record before the first");
+			}
+			if ((flags & GameRecordWriter.SWAPPED_PLAYERS) != 0) {
+				players = new String[] {players[1], players[0]};
+				depths = new int[] {depths[1], depths[0]};
+			}
+		}
+		else {
+			players = new String[2];
+			for (int playerNum = 0; playerNum < 2; playerNum++) {
+				int size = this.readInt();
+				if (size > length - position) {
+					throw new IOException("Record " + count + " is not valid");
+				}
+				players[playerNum] = new String(record, position, size, StandardCharsets.UTF_8);
+				position += size;
+			}
+			depths = new int[] {this.readInt(), this.readInt()};
+		}
+		int moveCount = this.readInt();
+		if (moveCount > MAX_MOVES) {
+			throw new IOException("Record " + count + " has " + moveCount + " moves");
+		}
+		// Unpack the moves, 3 bits each
+		byte [] moves = new byte[moveCount];
+		int bits = 0;
+		int pending = 0;
+		for (int ply = 0; ply < moveCount; ply++) {
+			if (pending < GameRecordWriter.MOVE_BITS) {
+				bits |= this.readByte() << pending;
+				pending += 8;
+			}
+			int col = bits & ((1 << GameRecordWriter.MOVE_BITS) - 1);
+			if (col >= Connect4State.COLS) {
+				throw new IOException("Record " + count + " has a move in column " + col);
+			}
+			moves[ply] = (byte) col;
+			bits >>>= GameRecordWriter.MOVE_BITS;
+			pending -= GameRecordWriter.MOVE_BITS;
+		}
+		long [] moveMicros = null;
+		if ((flags & GameRecordWriter.HAS_TIMES) != 0) {
+			moveMicros = new long[moveCount];
+			for (int ply = 0; ply < moveCount; ply++) {
+				moveMicros[ply] = this.readVarint();
+				if (moveMicros[ply] < 0) {
+					throw new IOException("Record " + count + " is not valid");
+				}
+			}
+		}
+		return new GameRecord(players, depths, flags & GameRecordWriter.RESULT_MASK, moves, moveMicros);
+	}
+
+	/**
+	 * Decodes a byte of the record
+	 * @return int (0 to 255)
+	 * @throws IOException if the record has no more bytes
+	 */
+	private int readByte() throws IOException {
+		if (position == length) {
+			throw new IOException("Record " + count + " is cut off");
+		}
+		return record[position++] & 0xFF;
+	}
+
+	/**
+	 * Decodes a varint of the record
+	 * @return long value
+	 * @throws IOException if the record has no more bytes or the varint is too long
+	 */
+	private long readVarint() throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = this.readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Record " + count + " is not valid");
+	}
+
+	/**
+	 * Decodes a varint of the record that is a size, count or depth
+	 * @return int value (0 to Integer.MAX_VALUE)
+	 * @throws IOException if the record has no more bytes or the value does not fit
+	 */
+	private int readInt() throws IOException {
+		long value = this.readVarint();
+		if (value < 0 || value > Integer.MAX_VALUE) {
+			throw new IOException("Record " + count + " is not valid");
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Gets the number of games read
+	 * @return long count
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Closes the file
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		in.close();
+	}
+} // This brace } ends the GameRecordReader Class
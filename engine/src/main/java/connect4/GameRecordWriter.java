@@ -0,0 +1,221 @@
+package connect4;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes games to a game record file, one at a time as they finish.  The
+ * format is compact, since an archive holds tens of millions of games:
+ *
+ * The file starts with a 4-byte magic number ("C4GR") and the format
+ * version, and then holds the records one after another.  Each record is its
+ * length in bytes (a varint: 7 bits per byte, low bits first, the top bit set
+ * on every byte but the last) followed by
+ *   - a byte of flags: the result (2 bits, see GameRecord), whether move
+ *     times follow the moves (bit 2), and whether the players are those of
+ *     the record before, in the same seats (bit 3) or swapped (bit 4);
+ *   - unless they are the players of the record before, each player's name
+ *     (its length in bytes as a varint, then at most MAX_NAME_BYTES of UTF-8)
+ *     and each player's depth
+ *     (a varint);
+ *   - the number of moves (a varint);
+ *   - the moves, 3 bits each, packed low bits first (so a full board of 42
+ *     moves takes 16 bytes);
+ *   - if recorded, the microseconds taken for each move (varints).
+ * The length in front lets a reader skip a record without decoding it.  In a
+ * match the same two players play every game, so after the first game only
+ * the moves, times and result take any room.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class GameRecordWriter implements Closeable {
+	// First bytes of the file, and the format version that follows them
+	static final int MAGIC = 0x43344752;
+	static final int VERSION = 1;
+
+	// Bits of the flags byte, and bits per move
+	static final int RESULT_MASK = 0x3;
+	static final int HAS_TIMES = 0x4;
+	static final int SAME_PLAYERS = 0x8;
+	static final int SWAPPED_PLAYERS = 0x10;
+	static final int MOVE_BITS = 3;
+
+	// Longest name a record can hold, and so the longest record: flags, names and
+	// depths, the move count, a full board of moves and a time for each move
+	static final int MAX_NAME_BYTES = 1024;
+	static final int MAX_RECORD_BYTES = 1 + 2 * (5 + MAX_NAME_BYTES + 5) + 1
+			+ (Connect4Position.SPOTS * MOVE_BITS + 7) / 8 + Connect4Position.SPOTS * 10;
+
+	// Instance variables
+	private final DataOutputStream out;		// The file
+	private byte [] record = new byte[256];	// Record being encoded
+	private int length;						// Bytes of it encoded so far
+	private long count;						// Records written
+	private String [] players;				// Players of the last record (null before the first)
+	private int [] depths;					// Their depths
+
+	/**
+	 * Starts a new game record file on a stream
+	 * @param OutputStream out
+	 * @throws IOException
+	 */
+	public GameRecordWriter(OutputStream out) throws IOException {
+		this.out = new DataOutputStream(new BufferedOutputStream(out));
+		this.out.writeInt(MAGIC);
+		this.out.writeInt(VERSION);
+	}
+
+	/**
+	 * Opens a game record file to add games to the end of it, starting it if
+	 * it does not exist or is empty
+	 * @param File file
+	 * @throws IOException (also if the file is not a game record file)
+	 */
+	public GameRecordWriter(File file) throws IOException {
+		boolean started = file.length() > 0;
+		if (started && !GameRecordReader.isRecordFile(file)) {
+			throw new IOException(file + " is not a game record file");
+		}
+		this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+		if (!started) {
+			this.out.writeInt(MAGIC);
+			this.out.writeInt(VERSION);
+		}
+	}
+
+	/**
+	 * Writes a game (buffered; see flush)
+	 * @param GameRecord game
+	 * @throws IOException (also if a player's name is longer than MAX_NAME_BYTES)
+	 */
+	public synchronized void write(GameRecord game) throws IOException {
+		length = 0;
+		int flags = game.getResult() | (game.hasMoveTimes() ? HAS_TIMES : 0);
+		if (this.samePlayers(game, 0)) {
+			flags |= SAME_PLAYERS;
+		}
+		else if (this.samePlayers(game, 1)) {
+			flags |= SWAPPED_PLAYERS;
+		}
+		this.writeByte(flags);
+		if ((flags & (SAME_PLAYERS | SWAPPED_PLAYERS)) == 0) {
+			for (int playerNum = 0; playerNum < 2; playerNum++) {
+				byte [] name = game.getPlayer(playerNum).getBytes(StandardCharsets.UTF_8);
+				if (name.length > MAX_NAME_BYTES) {
+					throw new IOException("The name of " + game.getPlayer(playerNum).substring(0, 20) + "... is too long to record");
+				}
+				this.writeVarint(name.length);
+				for (byte b : name) {
+					this.writeByte(b);
+				}
+			}
+			this.writeVarint(game.getDepth(0));
+			this.writeVarint(game.getDepth(1));
+		}
+		players = new String[] {game.getPlayer(0), game.getPlayer(1)};
+		depths = new int[] {game.getDepth(0), game.getDepth(1)};
+		this.writeVarint(game.getMoveCount());
+		// Pack the moves, 3 bits each
+		int bits = 0;
+		int pending = 0;
+		for (int ply = 0; ply < game.getMoveCount(); ply++) {
+			bits |= game.getMove(ply) << pending;
+			pending += MOVE_BITS;
+			if (pending >= 8) {
+				this.writeByte(bits);
+				bits >>>= 8;
+				pending -= 8;
+			}
+		}
+		if (pending > 0) {
+			this.writeByte(bits);
+		}
+		if (game.hasMoveTimes()) {
+			for (int ply = 0; ply < game.getMoveCount(); ply++) {
+				this.writeVarint(game.getMoveMicros(ply));
+			}
+		}
+		// Frame the record with its length
+		long size = length;
+		while (size >= 0x80) {
+			out.writeByte((int) (size & 0x7F) | 0x80);
+			size >>>= 7;
+		}
+		out.writeByte((int) size);
+		out.write(record, 0, length);
+		count++;
+	}
+
+	/**
+	 * Tells whether a game has the players of the last record
+	 * @param GameRecord game
+	 * @param int swap (0 for them in the same seats, 1 for them swapped)
+	 * @return boolean
+	 */
+	private boolean samePlayers(GameRecord game, int swap) {
+		if (players == null) {
+			return false;
+		}
+		for (int playerNum = 0; playerNum < 2; playerNum++) {
+			if (!game.getPlayer(playerNum).equals(players[playerNum ^ swap]) || game.getDepth(playerNum) != depths[playerNum ^ swap]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Adds a byte to the record being encoded
+	 * @param int b (low 8 bits)
+	 */
+	private void writeByte(int b) {
+		if (length == record.length) {
+			record = Arrays.copyOf(record, 2 * length);
+		}
+		record[length++] = (byte) b;
+	}
+
+	/**
+	 * Adds a varint to the record being encoded
+	 * @param long value (not negative)
+	 */
+	private void writeVarint(long value) {
+		while (value >= 0x80) {
+			this.writeByte((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		this.writeByte((int) value);
+	}
+
+	/**
+	 * Gets the number of games written
+	 * @return long count
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Writes the games buffered so far to the file
+	 * @throws IOException
+	 */
+	public synchronized void flush() throws IOException {
+		out.flush();
+	}
+
+	/**
+	 * Writes the games buffered so far and closes the file
+	 * @throws IOException
+	 */
+	public synchronized void close() throws IOException {
+		out.close();
+	}
+} // This brace } ends the GameRecordWriter Class
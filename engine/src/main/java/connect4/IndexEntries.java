@@ -0,0 +1,67 @@
+package connect4;
+
+/**
+ * Sorted entries of a position index (see PositionIndex), in memory (an
+ * IndexRun) or in a mapped file (an IndexSegment), so either can be merged
+ * into a new segment.  There are two kinds of entries:
+ *   - move statistics, sorted by key and move: how many games that played
+ *     the move from the position were won, drawn and lost by the player
+ *     making it;
+ *   - postings, sorted by key and game: a game that reached the position.
+ * Keys are canonical (see PositionIndex.canonicalKey), and a move and key
+ * are packed together as key << MOVE_BITS | move.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+interface IndexEntries {
+	// Bits of a packed key and move taken by the move
+	static final int MOVE_BITS = 3;
+
+	// Outcomes of a game for the player making a move
+	static final int WINS = 0;
+	static final int DRAWS = 1;
+	static final int LOSSES = 2;
+	static final int OUTCOMES = 3;
+
+	/**
+	 * Gets the number of move statistics
+	 * @return int
+	 */
+	int getStatsCount();
+
+	/**
+	 * Gets the key and move of some move statistics
+	 * @param int i (index, in sorted order)
+	 * @return long (key << MOVE_BITS | move)
+	 */
+	long getKeyMove(int i);
+
+	/**
+	 * Gets how many games that played a move had an outcome
+	 * @param int i (index of the move statistics)
+	 * @param int outcome (WINS, DRAWS or LOSSES)
+	 * @return int games
+	 */
+	int getCount(int i, int outcome);
+
+	/**
+	 * Gets the number of postings
+	 * @return int
+	 */
+	int getPostingCount();
+
+	/**
+	 * Gets the key of a posting
+	 * @param int i (index, in sorted order)
+	 * @return long key
+	 */
+	long getPostingKey(int i);
+
+	/**
+	 * Gets the game of a posting
+	 * @param int i (index, in sorted order)
+	 * @return int game
+	 */
+	int getPostingGame(int i);
+}
@@ -0,0 +1,175 @@
+package connect4;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The index entries (see IndexEntries) of a batch of games, built in memory
+ * by one of PositionIndex's loader threads.  Every position of each game is
+ * turned into a canonical key with bitboards (no Connect4Game is needed), and
+ * the entries are sorted by packing each into a single long, so building a
+ * run allocates nothing per position.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+class IndexRun implements IndexEntries {
+	// Most games in a run, so a posting's place in the run fits in POSITION_BITS
+	static final int MAX_GAMES = 256;
+	private static final int POSITION_BITS = 14;
+
+	// Instance variables
+	private final int firstGame;	// Number of the run's first game
+	private int gameCount;			// Number of games in the run (those before an invalid one)
+	private String error;			// Why the game after them was left out (null if none was)
+	private long [] keyMoves;		// Move statistics: key << MOVE_BITS | move
+	private int [] counts;			// Their wins, draws and losses (OUTCOMES per entry)
+	private int statsCount;			// Number of move statistics
+	private long [] postingKeys;	// Postings: key
+	private int [] postingGames;	// Postings: game
+	private int postingCount;		// Number of postings
+
+	/**
+	 * Builds the entries of a batch of games, up to the first with an invalid
+	 * move (see getError)
+	 * @param List<GameRecord> games (at most MAX_GAMES)
+	 * @param int firstGame (number of the first game; the others follow in order)
+	 * @throws IllegalArgumentException if there are too many games
+	 */
+	IndexRun(List<GameRecord> games, int firstGame) {
+		if (games.size() > MAX_GAMES) {
+			throw new IllegalArgumentException(games.size() + " games in one run");
+		}
+		this.firstGame = firstGame;
+		int capacity = 0;
+		for (GameRecord game : games) {
+			capacity += game.getMoveCount() + 1;
+		}
+		// Each move played packed with its outcome, and each position reached packed with its place in the run
+		long [] outcomes = new long[capacity];
+		long [] reached = new long[capacity];
+		int [] reachedGames = new int[capacity];
+		int outcomeCount = 0;
+		for (int g = 0; g < games.size(); g++) {
+			GameRecord game = games.get(g);
+			Connect4Position position = new Connect4Position();
+			int gamePostings = postingCount;
+			int gameOutcomes = outcomeCount;
+			for (int ply = 0; ply <= game.getMoveCount(); ply++) {
+				long key = PositionIndex.canonicalKey(position);
+				reachedGames[postingCount] = firstGame + g;
+				reached[postingCount] = key << POSITION_BITS | postingCount;
+				postingCount++;
+				if (ply == game.getMoveCount()) {
+					break;
+				}
+				int move = game.getMove(ply);
+				if (!position.canPlay(move) || position.isWinningMove(move) && ply + 1 < game.getMoveCount()) {
+					error = "Game " + (firstGame + g) + " has an invalid move at ply " + ply;
+					break;
+				}
+				int outcome = PositionIndex.outcome(game.getResult(), ply);
+				if (outcome >= 0) {
+					long keyMove = key << MOVE_BITS | PositionIndex.canonicalMove(position, move);
+					outcomes[outcomeCount++] = keyMove << 2 | outcome;
+				}
+				position.play(move);
+			}
+			// Leave out the invalid game and those after it
+			if (error != null) {
+				postingCount = gamePostings;
+				outcomeCount = gameOutcomes;
+				break;
+			}
+			gameCount++;
+		}
+		// Count the outcomes of each move
+		Arrays.sort(outcomes, 0, outcomeCount);
+		keyMoves = new long[outcomeCount];
+		counts = new int[outcomeCount * OUTCOMES];
+		for (int i = 0; i < outcomeCount; i++) {
+			long keyMove = outcomes[i] >>> 2;
+			if (statsCount == 0 || keyMoves[statsCount - 1] != keyMove) {
+				keyMoves[statsCount++] = keyMove;
+			}
+			counts[(statsCount - 1) * OUTCOMES + (int) (outcomes[i] & 3)]++;
+		}
+		// Postings in key order; positions of the same key stay in game order
+		Arrays.sort(reached, 0, postingCount);
+		postingKeys = new long[postingCount];
+		postingGames = new int[postingCount];
+		for (int i = 0; i < postingCount; i++) {
+			postingKeys[i] = reached[i] >>> POSITION_BITS;
+			postingGames[i] = reachedGames[(int) (reached[i] & ((1 << POSITION_BITS) - 1))];
+		}
+	}
+
+	/**
+	 * Tells why the games from one on were left out of the run
+	 * @return String (the invalid move of the first left out, or null if none were)
+	 */
+	String getError() {
+		return error;
+	}
+
+	/**
+	 * Gets the number after the run's last game
+	 * @return int
+	 */
+	int getEndGame() {
+		return firstGame + gameCount;
+	}
+
+	/**
+	 * Gets the number of move statistics
+	 * @return int
+	 */
+	public int getStatsCount() {
+		return statsCount;
+	}
+
+	/**
+	 * Gets the key and move of some move statistics
+	 * @param int i
+	 * @return long (key << MOVE_BITS | move)
+	 */
+	public long getKeyMove(int i) {
+		return keyMoves[i];
+	}
+
+	/**
+	 * Gets how many games that played a move had an outcome
+	 * @param int i
+	 * @param int outcome
+	 * @return int games
+	 */
+	public int getCount(int i, int outcome) {
+		return counts[i * OUTCOMES + outcome];
+	}
+
+	/**
+	 * Gets the number of postings
+	 * @return int
+	 */
+	public int getPostingCount() {
+		return postingCount;
+	}
+
+	/**
+	 * Gets the key of a posting
+	 * @param int i
+	 * @return long key
+	 */
+	public long getPostingKey(int i) {
+		return postingKeys[i];
+	}
+
+	/**
+	 * Gets the game of a posting
+	 * @param int i
+	 * @return int game
+	 */
+	public int getPostingGame(int i) {
+		return postingGames[i];
+	}
+} // This brace } ends the IndexRun Class
@@ -0,0 +1,308 @@
+package connect4;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * One sorted, memory-mapped file of a position index (see PositionIndex).
+ * Like the opening book (see ScoredPositionFile), a segment is mapped rather
+ * than read, so opening it is instant and costs no heap, and a lookup is a
+ * binary search of the mapping.  Segments never change once written: new
+ * games go into new segments, and segments are merged into bigger ones by
+ * write, which merges any sorted entries (in-memory runs or other segments).
+ *
+ * The file holds a 4-byte magic number ("C4IX"), the format version, the
+ * number of move statistics and the number of postings, then the move
+ * statistics in order (8 bytes of key and move, then 4 bytes each of wins,
+ * draws and losses), then the postings in order (8 bytes of key, 4 of game).
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+class IndexSegment implements IndexEntries {
+	// Bytes before the first entry, and per entry
+	private static final int HEADER_BYTES = 16;
+	private static final int STATS_BYTES = 8 + 4 * OUTCOMES;
+	private static final int POSTING_BYTES = 12;
+
+	// Most entries a segment can have, so each kind can be mapped at once
+	private static final int MAX_STATS = Integer.MAX_VALUE / STATS_BYTES;
+	private static final int MAX_POSTINGS = Integer.MAX_VALUE / POSTING_BYTES;
+
+	// First bytes of the file, and the format version that follows them
+	private static final int MAGIC = 0x43344958;
+	private static final int VERSION = 1;
+
+	// Instance variables
+	private final File file;				// The file
+	private final MappedByteBuffer stats;	// Its move statistics
+	private final MappedByteBuffer postings;	// Its postings
+	private final int statsCount;			// Number of move statistics
+	private final int postingCount;			// Number of postings
+
+	/**
+	 * Opens a segment
+	 * @param File file
+	 * @throws IOException (also if the file is not a segment or is not complete)
+	 */
+	IndexSegment(File file) throws IOException {
+		this.file = file;
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			if (in.length() < HEADER_BYTES || in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException(file + " is not a position index segment");
+			}
+			statsCount = in.readInt();
+			postingCount = in.readInt();
+			long statsBytes = (long) statsCount * STATS_BYTES;
+			long postingBytes = (long) postingCount * POSTING_BYTES;
+			if (statsCount < 0 || postingCount < 0 || in.length() != HEADER_BYTES + statsBytes + postingBytes) {
+				throw new IOException(file + " is not complete");
+			}
+			// The mappings stay valid after the file is closed (or deleted)
+			stats = in.getChannel().map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, statsBytes);
+			postings = in.getChannel().map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + statsBytes, postingBytes);
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Gets the file
+	 * @return File
+	 */
+	File getFile() {
+		return file;
+	}
+
+	/**
+	 * Finds the first move statistics of a position
+	 * @param long key (canonical key)
+	 * @return int (index of its first move statistics, or of those after where it would be)
+	 */
+	int findStats(long key) {
+		long target = key << MOVE_BITS;
+		int low = 0;
+		int high = statsCount;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (this.getKeyMove(middle) < target) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Finds the first posting of a position
+	 * @param long key (canonical key)
+	 * @return int (index of its first posting, or of the posting after where it would be)
+	 */
+	int findPostings(long key) {
+		int low = 0;
+		int high = postingCount;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (this.getPostingKey(middle) < key) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Gets the number of move statistics
+	 * @return int
+	 */
+	public int getStatsCount() {
+		return statsCount;
+	}
+
+	/**
+	 * Gets the key and move of some move statistics
+	 * @param int i
+	 * @return long (key << MOVE_BITS | move)
+	 */
+	public long getKeyMove(int i) {
+		return stats.getLong(i * STATS_BYTES);
+	}
+
+	/**
+	 * Gets how many games that played a move had an outcome
+	 * @param int i
+	 * @param int outcome
+	 * @return int games
+	 */
+	public int getCount(int i, int outcome) {
+		return stats.getInt(i * STATS_BYTES + 8 + 4 * outcome);
+	}
+
+	/**
+	 * Gets the number of postings
+	 * @return int
+	 */
+	public int getPostingCount() {
+		return postingCount;
+	}
+
+	/**
+	 * Gets the key of a posting
+	 * @param int i
+	 * @return long key
+	 */
+	public long getPostingKey(int i) {
+		return postings.getLong(i * POSTING_BYTES);
+	}
+
+	/**
+	 * Gets the game of a posting
+	 * @param int i
+	 * @return int game
+	 */
+	public int getPostingGame(int i) {
+		return postings.getInt(i * POSTING_BYTES + 8);
+	}
+
+	/**
+	 * Where a merge is in one of its sources
+	 */
+	private static class Cursor implements Comparable<Cursor> {
+		private final IndexEntries entries;	// The source
+		private int next;					// Its next entry to merge
+		private long key;					// That entry's key (and move, for move statistics)
+		private int game;					// Its game (for postings)
+
+		/**
+		 * Starts a merge at the first entry of a source
+		 * @param IndexEntries entries
+		 */
+		Cursor(IndexEntries entries) {
+			this.entries = entries;
+		}
+
+		/**
+		 * Orders cursors by their next entry
+		 * @param Cursor other
+		 * @return int (negative if this one's entry comes first)
+		 */
+		public int compareTo(Cursor other) {
+			return key != other.key ? Long.compare(key, other.key) : Integer.compare(game, other.game);
+		}
+	}
+
+	/**
+	 * Tells whether sorted entries fit in one segment
+	 * @param List<? extends IndexEntries> sources
+	 * @return boolean (false if there could be too many entries to map)
+	 */
+	static boolean fits(List<? extends IndexEntries> sources) {
+		long statsCount = 0;
+		long postingCount = 0;
+		for (IndexEntries source : sources) {
+			statsCount += source.getStatsCount();
+			postingCount += source.getPostingCount();
+		}
+		return statsCount <= MAX_STATS && postingCount <= MAX_POSTINGS;
+	}
+
+	/**
+	 * Merges sorted entries into a new segment, which is on disk when this
+	 * returns.  Statistics of the same move of the same position are added together.
+	 * @param File file (the new segment)
+	 * @param List<? extends IndexEntries> sources
+	 * @throws IOException (also if the entries do not fit in one segment)
+	 */
+	static void write(File file, List<? extends IndexEntries> sources) throws IOException {
+		if (!IndexSegment.fits(sources)) {
+			throw new IOException("Too many entries for one segment");
+		}
+		int postingCount = 0;
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+		int statsCount = 0;
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			// The counts are filled in at the end
+			out.writeInt(0);
+			out.writeInt(0);
+			// Move statistics, in key order, adding up those of the same key and move
+			PriorityQueue<Cursor> queue = new PriorityQueue<Cursor>();
+			for (IndexEntries source : sources) {
+				Cursor cursor = new Cursor(source);
+				if (source.getStatsCount() > 0) {
+					cursor.key = source.getKeyMove(0);
+					queue.add(cursor);
+				}
+			}
+			int [] counts = new int[OUTCOMES];
+			while (!queue.isEmpty()) {
+				long keyMove = queue.peek().key;
+				while (!queue.isEmpty() && queue.peek().key == keyMove) {
+					Cursor cursor = queue.poll();
+					for (int outcome = 0; outcome < OUTCOMES; outcome++) {
+						counts[outcome] += cursor.entries.getCount(cursor.next, outcome);
+					}
+					if (++cursor.next < cursor.entries.getStatsCount()) {
+						cursor.key = cursor.entries.getKeyMove(cursor.next);
+						queue.add(cursor);
+					}
+				}
+				out.writeLong(keyMove);
+				for (int outcome = 0; outcome < OUTCOMES; outcome++) {
+					out.writeInt(counts[outcome]);
+					counts[outcome] = 0;
+				}
+				statsCount++;
+			}
+			// Postings, in key and game order
+			for (IndexEntries source : sources) {
+				Cursor cursor = new Cursor(source);
+				if (source.getPostingCount() > 0) {
+					cursor.key = source.getPostingKey(0);
+					cursor.game = source.getPostingGame(0);
+					queue.add(cursor);
+				}
+			}
+			while (!queue.isEmpty()) {
+				Cursor cursor = queue.poll();
+				out.writeLong(cursor.key);
+				out.writeInt(cursor.game);
+				postingCount++;
+				if (++cursor.next < cursor.entries.getPostingCount()) {
+					cursor.key = cursor.entries.getPostingKey(cursor.next);
+					cursor.game = cursor.entries.getPostingGame(cursor.next);
+					queue.add(cursor);
+				}
+			}
+		}
+		finally {
+			out.close();
+		}
+		RandomAccessFile header = new RandomAccessFile(file, "rw");
+		try {
+			header.seek(8);
+			header.writeInt(statsCount);
+			header.writeInt(postingCount);
+			// On disk before a manifest can name it
+			header.getChannel().force(true);
+		}
+		finally {
+			header.close();
+		}
+	}
+} // This brace } ends the IndexSegment Class
@@ -0,0 +1,153 @@
+package connect4;
+
+/**
+ * The original evaluation: scans every possible 4 in a row of the board and
+ * tests it against each pattern of checkers in turn.  It gives the same
+ * scores as TableEvaluator, much more slowly, and is kept to check that one
+ * against and for comparing the two.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class LegacyEvaluator implements Evaluator {
+
+	/**
+	 * Static evaluation function to determine the "score" of the board for a
+	 * player. In Connect4, "score" is determined by the weighted sum of how many 3 in 
+	 * a rows, 2 in a rows, 1 in a rows, and 0 in a rows, multiplying the score if that
+	 * space is directly available (empty, but full directly below it)
+	 * @param Connect4Game state
+	 * @param int playerNum (player to score the board for)
+	 * @return int (score of board for player)
+	 */
+	public int evaluate(Connect4Game state, int playerNum) {
+		// Initialize score to 0
+		int score = 0;
+		// Get the board array representation of the board
+		int[] board = state.getBoardArray();
+		// The board holds 1 for the first player's checkers and 2 for the second's
+		int checker = playerNum + 1;
+		// Use the shared table of all possible 4 in a rows
+		NInARow fourInARow = NInARow.FOUR_IN_A_ROW;
+		// Iterate over each possible 4 in a rows
+		for (int line = 0; line < fourInARow.getLineCount(); line++) {
+			// Get what is in each of the line's cells
+			int v0 = board[fourInARow.getCell(line, 0)];
+			int v1 = board[fourInARow.getCell(line, 1)];
+			int v2 = board[fourInARow.getCell(line, 2)];
+			int v3 = board[fourInARow.getCell(line, 3)];
+			// Evaluate the score for 3 in a rows, 2 in a rows, 1 in a rows, 0 in a rows
+			// 3 in a rows
+			// 3 in a rows are especially threatening, so the program takes extra care to 
+			// account for all possible situations in which one move, including those with gaps,
+			// will win the game, essentially extending the horizon in threatening cases 
+			// Note that in all cases, if the skip space is open to drop a checker directly into, 
+			// the score has a multiplier, to weight the move even more
+			if (v0 == 0 && v1 == checker && 
+					v2 == checker && v3 == checker) {
+				score += ComputerConnect4Player.THREE_VAL;
+				if (fourInARow.possibleChecker(state, fourInARow.getCell(line, 0))) {
+					score += ComputerConnect4Player.THREE_VAL * ComputerConnect4Player.SPLIT_MULTIPLIER;
+				}
+			}
+			if (v0 == checker && v1 == 0 && 
+					v2 == checker && v3 == checker) {
+				score += ComputerConnect4Player.THREE_VAL;
+				if (fourInARow.possibleChecker(state, fourInARow.getCell(line, 1))) {
+					score += ComputerConnect4Player.THREE_VAL * ComputerConnect4Player.SPLIT_MULTIPLIER;
+				}
+			}
+			if (v0 == checker && v1 == checker && 
+					v2 == 0 && v3 == checker) {
+				score += ComputerConnect4Player.THREE_VAL;
+				if (fourInARow.possibleChecker(state, fourInARow.getCell(line, 2))) {
+					score += ComputerConnect4Player.THREE_VAL * ComputerConnect4Player.SPLIT_MULTIPLIER;
+				}
+			}
+			if (v0 == checker && v1 == checker && 
+					v2 == checker && v3 == 0) {
+				score += ComputerConnect4Player.THREE_VAL;
+				if (fourInARow.possibleChecker(state, fourInARow.getCell(line, 3))) {
+					score += ComputerConnect4Player.THREE_VAL * ComputerConnect4Player.SPLIT_MULTIPLIER;
+				}
+			}
+			
+			// Two in a rows
+			// Note that this does not account for gaps between 2 in a rows (like 3 in
+			// a rows), but two in a rows are generally less threatening
+			if (v0 == checker && v1 == checker && 
+					v2 == 0 && v3 == 0) {
+				score += ComputerConnect4Player.TWO_VAL;
+				if (fourInARow.possibleChecker(state, fourInARow.getCell(line, 2)) &&
+						fourInARow.possibleChecker(state, fourInARow.getCell(line, 3))) {
+					score += ComputerConnect4Player.TWO_VAL * ComputerConnect4Player.SPLIT_MULTIPLIER;
+				}
+			}
+			if (v0 == 0 && v1 == checker && 
+					v2 == checker && v3 == 0)  {
+				score += ComputerConnect4Player.TWO_VAL;
+				if (fourInARow.possibleChecker(state, fourInARow.getCell(line, 0)) &&
+						fourInARow.possibleChecker(state, fourInARow.getCell(line, 3))) {
+					score += ComputerConnect4Player.TWO_VAL * ComputerConnect4Player.SPLIT_MULTIPLIER;
+				}
+			}
+			if (v0 == 0 && v1 == 0 && 
+					v2 == checker && v3 == checker) {
+				score += ComputerConnect4Player.TWO_VAL;
+				if (fourInARow.possibleChecker(state, fourInARow.getCell(line, 0)) &&
+						fourInARow.possibleChecker(state, fourInARow.getCell(line, 1))) {
+					score += ComputerConnect4Player.TWO_VAL * ComputerConnect4Player.SPLIT_MULTIPLIER;
+				}
+			}
+			
+			// One in a rows
+			if (v0 == checker && v1 == 0 && 
+					v2 == 0 && v3 == 0) {
+				score += ComputerConnect4Player.ONE_VAL;
+				if (fourInARow.possibleChecker(state, fourInARow.getCell(line, 1)) &&
+						fourInARow.possibleChecker(state, fourInARow.getCell(line, 2)) &&
+						fourInARow.possibleChecker(state, fourInARow.getCell(line, 3))) {
+					score += ComputerConnect4Player.ONE_VAL * ComputerConnect4Player.SPLIT_MULTIPLIER;
+				}
+			}
+			if (v0 == 0 && v1 == checker && 
+					v2 == 0 && v3 == 0) {
+				score += ComputerConnect4Player.ONE_VAL;
+				if (fourInARow.possibleChecker(state, fourInARow.getCell(line, 0)) &&
+						fourInARow.possibleChecker(state, fourInARow.getCell(line, 2)) &&
+						fourInARow.possibleChecker(state, fourInARow.getCell(line, 3))) {
+					score += ComputerConnect4Player.ONE_VAL * ComputerConnect4Player.SPLIT_MULTIPLIER;
+				}
+			}
+			if (v0 == 0 && v1 == 0 && 
+					v2 == checker && v3 == 0) { 
+				score += ComputerConnect4Player.ONE_VAL;
+			if (fourInARow.possibleChecker(state, fourInARow.getCell(line, 0)) &&
+					fourInARow.possibleChecker(state, fourInARow.getCell(line, 1)) &&
+					fourInARow.possibleChecker(state, fourInARow.getCell(line, 3))) {
+				score += ComputerConnect4Player.ONE_VAL * ComputerConnect4Player.SPLIT_MULTIPLIER;
+				}
+			}
+		if (v0 == 0 && v1 == 0 && 
+				v2 == 0 && v3 == checker) {
+				score += ComputerConnect4Player.ONE_VAL;
+				if (fourInARow.possibleChecker(state, fourInARow.getCell(line, 0)) &&
+						fourInARow.possibleChecker(state, fourInARow.getCell(line, 1)) &&
+						fourInARow.possibleChecker(state, fourInARow.getCell(line, 2))) {
+					score += ComputerConnect4Player.ONE_VAL * ComputerConnect4Player.SPLIT_MULTIPLIER;
+				}
+			}
+		
+			// Zero in a rows
+			// This case is important at the beginning of the game when there are not 
+			// too many checkers placed, so we really just have to evaluate the "potential"
+			// of each spot (middle is better)
+			if (v0 == 0 && v1 == 0 && 
+					v2 == 0 && v3 == 0) {
+				score += ComputerConnect4Player.ZERO_VAL;
+			}
+		}
+		// Return the score
+		return score;
+	}
+} // This brace } ends the LegacyEvaluator Class
@@ -0,0 +1,518 @@
+package connect4;
+
+import java.util.SplittableRandom;
+
+/**
+ * Implements a computer player that chooses moves with Monte Carlo tree
+ * search (UCT): it plays many quick semi-random games from the current
+ * position, grows a tree of the positions they go through, and steers the
+ * games toward the moves that have won the most so far while still trying
+ * the others now and then.  It plays the move it tried the most.  Unlike
+ * the alpha-beta player it can stop after any number of games, so it plays
+ * better the more time (or threads) it is given.
+ *
+ * The tree is kept in a pool of primitive arrays, one entry per node and
+ * the children of a node next to each other, rather than one object per
+ * node.  The part of the tree below the position after the opponent's reply
+ * is kept for the next move.
+ *
+ * Several threads can search one tree at once: a thread walking down the
+ * tree adds a "virtual loss" to each node it passes, so the other threads
+ * prefer other paths until its game is finished and the loss is taken back.
+ * The tree is only touched while holding a lock; the random games, which
+ * take most of the time, are played outside it.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class MctsConnect4Player extends Player {
+	// Number of nodes in the pool if no size is given
+	public static final int DEFAULT_NODES = 1 << 20;
+	// Fewest nodes a pool can have: the root and a child for each column
+	public static final int MIN_NODES = 1 + Connect4State.COLS;
+	// Number of games per move if no budget is given
+	public static final int DEFAULT_ITERATIONS = 100000;
+	// Weight of trying moves that have been tried less, as in the UCT formula
+	public static final double DEFAULT_EXPLORATION = 1.4;
+
+	// Results of a game, from the point of view of one player (in half points)
+	private static final int LOSS = 0;
+	private static final int DRAW = 1;
+	private static final int WIN = 2;
+	// What is known about a node without playing from it
+	private static final byte OPEN = 0;        // The game goes on
+	private static final byte WON = 1;         // The move to the node won the game
+	private static final byte DRAWN = 2;       // The move to the node filled the board
+	// Visits added to a node while a thread's game through it is being played
+	private static final int VIRTUAL_LOSS = 1;
+	// Deepest path from the root to a node, plus one
+	private static final int MAX_PATH = Connect4Position.SPOTS + 1;
+
+	// Private instance variables
+	private NodePool tree;				// Nodes of the current tree
+	private NodePool spare;				// Pool the kept part of the tree is copied into for the next move
+	private Connect4Position rootPosition;	// Position at the root of the tree (null before the first move)
+	private final Object lock = new Object();	// Held while touching the tree
+	private int iterations = DEFAULT_ITERATIONS;	// Games to play per move (if no move time is set)
+	private long moveTime;				// Milliseconds to search per move (0 to play a set number of games)
+	private double exploration = DEFAULT_EXPLORATION;	// UCT exploration weight
+	private int threads = 1;			// Number of threads to play games with
+	private long gamesPlayed;			// Games played for the current move
+	private long gamesLimit;			// Games to stop at for the current move
+	private long deadline;				// System.nanoTime() to stop at for the current move (0 for none)
+	private int reusedVisits;			// Visits of the root kept from the last move
+
+	/**
+	 * Constructor to set name, with a pool of the default size
+	 * @param String name
+	 */
+	public MctsConnect4Player(String name) {
+		this(name, DEFAULT_NODES);
+	}
+
+	/**
+	 * Constructor to set name and the size of the node pool
+	 * @param String name
+	 * @param int nodes (most nodes the tree can have, at least MIN_NODES)
+	 * @throws IllegalArgumentException if there are fewer nodes than MIN_NODES
+	 */
+	public MctsConnect4Player(String name, int nodes) {
+		super(name);
+		if (nodes < MIN_NODES) {
+			throw new IllegalArgumentException("A tree needs at least " + MIN_NODES + " nodes, not " + nodes);
+		}
+		tree = new NodePool(nodes);
+		spare = new NodePool(nodes);
+	}
+
+	/**
+	 * Sets the number of games to play per move (used if no move time is set)
+	 * @param int iterations
+	 */
+	public void setIterations(int iterations) {
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Sets how long to search per move
+	 * @param long millis (milliseconds per move, or 0 to play a set number of games)
+	 */
+	public void setMoveTime(long millis) {
+		this.moveTime = millis;
+	}
+
+	/**
+	 * Sets the UCT exploration weight: higher tries less promising moves more often
+	 * @param double exploration
+	 */
+	public void setExploration(double exploration) {
+		this.exploration = exploration;
+	}
+
+	/**
+	 * Sets the number of threads to play games with, all growing the same tree
+	 * @param int threads (at least 1)
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Returns and reports the move tried the most
+	 * @return int (column of the move chosen)
+	 */
+	public int getMove(Connect4State state, Connect4View view) {
+		Connect4Position position = new Connect4Position((Connect4Game) state);
+		this.moveRoot(position);
+		// Give the root its children before any game, so there is a move to play even if no game is
+		if (tree.childCount[0] == 0) {
+			this.expand(0, position.getCurrent(), position.getMask(), position.getMoves());
+		}
+		gamesPlayed = 0;
+		gamesLimit = moveTime > 0 ? Long.MAX_VALUE : iterations;
+		deadline = moveTime > 0 ? System.nanoTime() + moveTime * 1000000L : 0;
+		// Play games on the helper threads and this one until the budget is used up
+		Thread [] helpers = new Thread[threads - 1];
+		for (int i = 0; i < helpers.length; i++) {
+			helpers[i] = new Thread(this::search, getName() + " playouts " + (i + 1));
+			helpers[i].setDaemon(true);
+			helpers[i].start();
+		}
+		this.search();
+		for (Thread helper : helpers) {
+			try {
+				helper.join();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		int move = this.bestMove();
+		// Report the move chosen
+		view.reportMove(move, state.getPlayerToMove().getName());
+		// Return move
+		return move;
+	}
+
+	/**
+	 * Gets the number of games played for the last move
+	 * @return long games
+	 */
+	public long getGamesPlayed() {
+		return gamesPlayed;
+	}
+
+	/**
+	 * Gets the number of games through the root that were kept from the move before
+	 * @return int visits
+	 */
+	public int getReusedVisits() {
+		return reusedVisits;
+	}
+
+	/**
+	 * Gets the number of nodes in the tree
+	 * @return int nodes
+	 */
+	public int getTreeSize() {
+		return tree.size;
+	}
+
+	/**
+	 * Makes the root of the tree the given position.  If it is two moves (or
+	 * one, or none) below the old root, the subtree under it is kept, copied to
+	 * the front of the spare pool; otherwise the tree starts again.
+	 * @param Connect4Position position
+	 */
+	private void moveRoot(Connect4Position position) {
+		int kept = -1;
+		int movesSince = rootPosition == null ? -1 : position.getMoves() - rootPosition.getMoves();
+		if (movesSince >= 0 && movesSince <= 2) {
+			kept = this.findNode(0, rootPosition, position.key(), movesSince);
+		}
+		if (kept < 0) {
+			tree.size = 0;
+			tree.allocate(1);
+			tree.clear(0, -1);
+			reusedVisits = 0;
+		}
+		else {
+			spare.copySubtree(tree, kept);
+			NodePool old = tree;
+			tree = spare;
+			spare = old;
+			reusedVisits = tree.visits[0];
+		}
+		rootPosition = new Connect4Position(position);
+	}
+
+	/**
+	 * Looks for the node of a position some moves below a node
+	 * @param int node
+	 * @param Connect4Position position (of the node)
+	 * @param long key (of the position looked for)
+	 * @param int moves (number of moves down to look)
+	 * @return int node of the position, or -1 if it is not in the tree
+	 */
+	private int findNode(int node, Connect4Position position, long key, int moves) {
+		if (moves == 0) {
+			return position.key() == key ? node : -1;
+		}
+		for (int i = 0; i < tree.childCount[node]; i++) {
+			int child = tree.firstChild[node] + i;
+			if (tree.terminal[child] == OPEN) {
+				Connect4Position next = new Connect4Position(position);
+				next.play(tree.move[child]);
+				int found = this.findNode(child, next, key, moves - 1);
+				if (found >= 0) {
+					return found;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Plays games until the budget for the move is used up
+	 */
+	private void search() {
+		SplittableRandom random = new SplittableRandom();
+		int [] path = new int[MAX_PATH];
+		while (true) {
+			long current;
+			long mask;
+			int moves;
+			int length;
+			int result;
+			// Walk down the tree, adding a virtual loss to each node on the way
+			synchronized (lock) {
+				if (gamesPlayed >= gamesLimit || (deadline > 0 && System.nanoTime() >= deadline)) {
+					return;
+				}
+				gamesPlayed++;
+				current = rootPosition.getCurrent();
+				mask = rootPosition.getMask();
+				moves = rootPosition.getMoves();
+				int node = 0;
+				length = 0;
+				path[length++] = node;
+				tree.visits[node] += VIRTUAL_LOSS;
+				while (tree.terminal[node] == OPEN) {
+					// Grow the tree by the children of the first node reached that has none
+					if (tree.childCount[node] == 0 && !this.expand(node, current, mask, moves)) {
+						break;
+					}
+					node = this.select(node);
+					current ^= mask;
+					mask |= mask + Connect4Position.bottomMask(tree.move[node]);
+					moves++;
+					path[length++] = node;
+					tree.visits[node] += VIRTUAL_LOSS;
+					if (tree.visits[node] == VIRTUAL_LOSS) {
+						// First visit: finish the game with a random game from here
+						break;
+					}
+				}
+				byte terminal = tree.terminal[node];
+				if (terminal == WON) {
+					// The player to move has lost
+					result = LOSS;
+				}
+				else if (terminal == DRAWN) {
+					result = DRAW;
+				}
+				else {
+					result = -1;
+				}
+			}
+			// Play a random game from the node reached, without the lock
+			if (result < 0) {
+				result = playout(current, mask, moves, random);
+			}
+			// Take the virtual losses back and add the result to every node on the path,
+			// each from the point of view of the player who moved into it
+			synchronized (lock) {
+				int points = WIN - result;
+				for (int i = length - 1; i >= 0; i--) {
+					int node = path[i];
+					tree.visits[node] += 1 - VIRTUAL_LOSS;
+					tree.score[node] += points;
+					points = WIN - points;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Picks the child of a node with the best UCT value: its average result for
+	 * the player moving into it, plus a bonus for having been tried less
+	 * @param int node (with children)
+	 * @return int child
+	 */
+	private int select(int node) {
+		int first = tree.firstChild[node];
+		int count = tree.childCount[node];
+		double logVisits = Math.log(Math.max(1, tree.visits[node]));
+		int best = first;
+		double bestValue = Double.NEGATIVE_INFINITY;
+		for (int child = first; child < first + count; child++) {
+			// A winning move is always best
+			if (tree.terminal[child] == WON) {
+				return child;
+			}
+			int visits = tree.visits[child];
+			if (visits == 0) {
+				return child;
+			}
+			double value = tree.score[child] / (2.0 * visits) + exploration * Math.sqrt(logVisits / visits);
+			if (value > bestValue) {
+				bestValue = value;
+				best = child;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Adds the children of a node, one per legal move, next to each other in the pool
+	 * @param int node
+	 * @param long current (checkers of the player to move at the node)
+	 * @param long mask (all checkers at the node)
+	 * @param int moves (number of checkers)
+	 * @return boolean (false if the pool is full)
+	 */
+	private boolean expand(int node, long current, long mask, int moves) {
+		long possible = Connect4Position.possible(mask);
+		int count = Long.bitCount(possible);
+		int first = tree.allocate(count);
+		if (first < 0) {
+			return false;
+		}
+		long wins = Connect4Position.winningSpots(current, mask) & possible;
+		int child = first;
+		for (int col = 0; col < Connect4State.COLS; col++) {
+			long move = possible & Connect4Position.columnMask(col);
+			if (move != 0) {
+				tree.clear(child, col);
+				if ((wins & move) != 0) {
+					tree.terminal[child] = WON;
+				}
+				else if (moves + 1 == Connect4Position.SPOTS) {
+					tree.terminal[child] = DRAWN;
+				}
+				child++;
+			}
+		}
+		tree.firstChild[node] = first;
+		tree.childCount[node] = (byte) count;
+		return true;
+	}
+
+	/**
+	 * Plays a quick game to the end: each player wins at once if they can, blocks
+	 * the opponent's win if they must, and otherwise plays a random move that does
+	 * not let the opponent win next
+	 * @param long current (checkers of the player to move)
+	 * @param long mask (all checkers)
+	 * @param int moves (number of checkers)
+	 * @param SplittableRandom random
+	 * @return int result for the player to move at the start (WIN, DRAW or LOSS)
+	 */
+	private static int playout(long current, long mask, int moves, SplittableRandom random) {
+		// True while the player to move is the one the result is for
+		boolean first = true;
+		while (moves < Connect4Position.SPOTS) {
+			if ((Connect4Position.winningSpots(current, mask) & Connect4Position.possible(mask)) != 0) {
+				return first ? WIN : LOSS;
+			}
+			long safe = Connect4Position.nonLosingMoves(current, mask);
+			if (safe == 0) {
+				// Every move lets the opponent win
+				return first ? LOSS : WIN;
+			}
+			// Pick one of the safe moves at random
+			for (int skip = random.nextInt(Long.bitCount(safe)); skip > 0; skip--) {
+				safe &= safe - 1;
+			}
+			long move = Long.lowestOneBit(safe);
+			current ^= mask;
+			mask |= move;
+			moves++;
+			first = !first;
+		}
+		return DRAW;
+	}
+
+	/**
+	 * Picks the root's child with the most visits, or a winning move
+	 * (the leftmost move if no game was played)
+	 * @return int column
+	 */
+	private int bestMove() {
+		int first = tree.firstChild[0];
+		int best = first;
+		for (int child = first; child < first + tree.childCount[0]; child++) {
+			if (tree.terminal[child] == WON) {
+				return tree.move[child];
+			}
+			if (tree.visits[child] > tree.visits[best]) {
+				best = child;
+			}
+		}
+		return tree.move[best];
+	}
+
+	/**
+	 * The nodes of a tree in primitive arrays, indexed by node number.  Node 0 is
+	 * the root, and the children of a node are numbered firstChild to
+	 * firstChild + childCount - 1.
+	 */
+	private static final class NodePool {
+		final int [] firstChild;	// Number of the first child (meaningless if there are none)
+		final byte [] childCount;	// Number of children (0 until the node is expanded)
+		final byte [] move;			// Column of the move into the node
+		final byte [] terminal;		// OPEN, WON or DRAWN
+		final int [] visits;		// Games through the node (plus virtual losses)
+		final int [] score;			// Half points those games scored for the player who moved into the node
+		int size;					// Number of nodes in use
+
+		/**
+		 * Creates an empty pool
+		 * @param int capacity (most nodes)
+		 */
+		NodePool(int capacity) {
+			firstChild = new int[capacity];
+			childCount = new byte[capacity];
+			move = new byte[capacity];
+			terminal = new byte[capacity];
+			visits = new int[capacity];
+			score = new int[capacity];
+		}
+
+		/**
+		 * Takes nodes from the pool
+		 * @param int count
+		 * @return int number of the first node, or -1 if the pool is full
+		 */
+		int allocate(int count) {
+			if (size + count > visits.length) {
+				return -1;
+			}
+			size += count;
+			return size - count;
+		}
+
+		/**
+		 * Resets a node to have no visits and no children
+		 * @param int node
+		 * @param int col (column of the move into the node, or -1 for the root)
+		 */
+		void clear(int node, int col) {
+			firstChild[node] = 0;
+			childCount[node] = 0;
+			move[node] = (byte) col;
+			terminal[node] = OPEN;
+			visits[node] = 0;
+			score[node] = 0;
+		}
+
+		/**
+		 * Replaces this pool's tree with a copy of the subtree under a node of
+		 * another pool, copying a node's children before their children
+		 * @param NodePool from
+		 * @param int root (node of the other pool that becomes node 0)
+		 */
+		void copySubtree(NodePool from, int root) {
+			size = 0;
+			this.allocate(1);
+			this.copyNode(from, root, 0);
+			// Nodes already copied whose children still need to be
+			for (int next = 0; next < size; next++) {
+				int count = childCount[next];
+				if (count > 0) {
+					int fromFirst = firstChild[next];
+					int first = this.allocate(count);
+					for (int i = 0; i < count; i++) {
+						this.copyNode(from, fromFirst + i, first + i);
+					}
+					firstChild[next] = first;
+				}
+			}
+		}
+
+		/**
+		 * Copies one node of another pool into this one (children still numbered as in the other pool)
+		 * @param NodePool from
+		 * @param int fromNode
+		 * @param int node
+		 */
+		private void copyNode(NodePool from, int fromNode, int node) {
+			firstChild[node] = from.firstChild[fromNode];
+			childCount[node] = from.childCount[fromNode];
+			move[node] = from.move[fromNode];
+			terminal[node] = from.terminal[fromNode];
+			visits[node] = from.visits[fromNode];
+			score[node] = from.score[fromNode];
+		}
+	}
+} // This brace } ends the MctsConnect4Player Class
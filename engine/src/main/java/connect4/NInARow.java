@@ -0,0 +1,245 @@
+package connect4;
+
+import java.util.ArrayList;
+
+/**
+ * Class to find all "in a rows" on a Connect4 board.  The lines only depend
+ * on the board size, so they are computed once and held in flat primitive
+ * tables that are never changed afterwards.
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class NInARow {
+	// Shared table of all possible 4 in a rows, built once for the board size
+	public static final NInARow FOUR_IN_A_ROW = new NInARow(4);
+
+	// Instance variables
+	private final int n;                  // Number in a row
+	private final int lineCount;          // Number of possible n in a rows
+	private final int[] lines;            // Cells of every n in a row, n entries per line
+	private final long[] lineMasks;       // Bitboard (see Connect4Game) of every n in a row
+	private final long[] cellMasks;       // Bitboard bit of every cell of every n in a row, n entries per line
+	private final int[] cellLinesStart;   // Where each cell's lines start in cellLines (one extra entry at the end)
+	private final int[] cellLines;        // Numbers of the lines through each cell, grouped by cell
+
+	/**
+	 * Constructs the tables of all n in a rows
+	 * @param int n (number in a row looking for)
+	 */
+	public NInARow (int n) {
+		this.n = n;
+		// Count the lines in each direction so the tables can be sized exactly
+		int diagonals = Math.max(0, Connect4Game.ROWS - n + 1) * Math.max(0, Connect4Game.COLS - n + 1);
+		int horizontals = Connect4Game.ROWS * Math.max(0, Connect4Game.COLS - n + 1);
+		int verticals = Connect4Game.COLS * Math.max(0, Connect4Game.ROWS - n + 1);
+		this.lineCount = 2 * diagonals + horizontals + verticals;
+		this.lines = new int[lineCount * n];
+		int line = 0;
+		// Positive diagonal
+		for (int r = 0; r <= Connect4Game.ROWS - n; r++) {
+			for (int c = 0; c <= Connect4Game.COLS - n; c++) {
+				for (int i = 0; i < n; i++) {
+					lines[line * n + i] = ((r+i) * Connect4Game.COLS) + (c+i);
+				}
+				line++;
+			}
+		}
+		// Negative diagonals
+		for (int r = n - 1; r <= Connect4Game.ROWS - 1; r++) {
+			for (int c = 0; c <= Connect4Game.COLS - n; c++) {
+				for (int i = 0; i < n; i++) {
+					lines[line * n + i] = ((r-i) * Connect4Game.COLS) + (c+i);
+				}
+				line++;
+			}
+		}
+		// Horizontal
+		for (int c = 0; c <= Connect4Game.COLS - n; c++) {
+			for (int r = 0; r < Connect4Game.ROWS; r++) {
+				for (int i = 0; i < n; i++) {
+					lines[line * n + i] = (r * Connect4Game.COLS) + c + i;
+				}
+				line++;
+			}
+		}
+		// Vertical
+		for (int c = 0; c < Connect4Game.COLS; c++) {
+			for (int r = 0; r <= Connect4Game.ROWS - n; r++) {
+				for (int i = 0; i < n; i++) {
+					lines[line * n + i] = ((r+i) * Connect4Game.COLS) + c;
+				}
+				line++;
+			}
+		}
+
+		// Build the bitboard mask of each cell and each line
+		this.cellMasks = new long[lines.length];
+		this.lineMasks = new long[lineCount];
+		for (int l = 0; l < lineCount; l++) {
+			for (int i = 0; i < n; i++) {
+				cellMasks[l * n + i] = 1L << bitIndex(lines[l * n + i]);
+				lineMasks[l] |= cellMasks[l * n + i];
+			}
+		}
+
+		// Index the lines by cell: count the lines through each cell, turn the
+		// counts into start positions, then fill in the line numbers
+		int cells = Connect4Game.ROWS * Connect4Game.COLS;
+		this.cellLinesStart = new int[cells + 1];
+		for (int i = 0; i < lines.length; i++) {
+			cellLinesStart[lines[i] + 1]++;
+		}
+		for (int cell = 0; cell < cells; cell++) {
+			cellLinesStart[cell + 1] += cellLinesStart[cell];
+		}
+		this.cellLines = new int[lines.length];
+		int[] next = cellLinesStart.clone();
+		for (int l = 0; l < lineCount; l++) {
+			for (int i = 0; i < n; i++) {
+				cellLines[next[lines[l * n + i]]++] = l;
+			}
+		}
+	}
+
+	/**
+	 * Older constructor that took the board as well, which the lines do not
+	 * depend on.  Prefer the shared FOUR_IN_A_ROW table.
+	 * @param int n (number in a row looking for)
+	 * @param int [] board (state of the game, not used)
+	 */
+	public NInARow (int n, int[] board) {
+		this(n);
+	}
+
+	/**
+	 * Getter method for n
+	 * @return int n (number in a row)
+	 */
+	public int getN() {
+		return n;
+	}
+
+	/**
+	 * Getter method for the number of possible n in a rows
+	 * @return int lineCount
+	 */
+	public int getLineCount() {
+		return lineCount;
+	}
+
+	/**
+	 * Gets one cell (r*COLS + c, as in Connect4Game.getBoardArray) of a line
+	 * @param int line (number of the line)
+	 * @param int i (which of the line's n cells, from 0)
+	 * @return int cell index
+	 */
+	public int getCell(int line, int i) {
+		return lines[line * n + i];
+	}
+
+	/**
+	 * Gets the bitboard mask of a line, in the layout of Connect4Game.getBitboard
+	 * @param int line (number of the line)
+	 * @return long mask
+	 */
+	public long getLineMask(int line) {
+		return lineMasks[line];
+	}
+
+	/**
+	 * Gets the bitboard bit of one cell of a line
+	 * @param int line (number of the line)
+	 * @param int i (which of the line's n cells, from 0)
+	 * @return long mask with just the cell's bit set
+	 */
+	public long getCellMask(int line, int i) {
+		return cellMasks[line * n + i];
+	}
+
+	/**
+	 * Gets where the lines through a cell start.  The lines through cell are
+	 * getCellLine(k) for getCellLinesStart(cell) <= k < getCellLinesEnd(cell).
+	 * @param int cell (r*COLS + c)
+	 * @return int start index
+	 */
+	public int getCellLinesStart(int cell) {
+		return cellLinesStart[cell];
+	}
+
+	/**
+	 * Gets where the lines through a cell end (exclusive)
+	 * @param int cell (r*COLS + c)
+	 * @return int end index
+	 */
+	public int getCellLinesEnd(int cell) {
+		return cellLinesStart[cell + 1];
+	}
+
+	/**
+	 * Gets a line number out of the per-cell index
+	 * @param int k (between getCellLinesStart and getCellLinesEnd of a cell)
+	 * @return int line number
+	 */
+	public int getCellLine(int k) {
+		return cellLines[k];
+	}
+
+	/**
+	 * Builds a list of all n in a rows, each as an array of its cells
+	 * @return ArrayList<int[]> totalInARows
+	 */
+	public ArrayList<int[]> getTotalInARows() {
+		ArrayList<int[]> totalInARows = new ArrayList<int[]>();
+		for (int l = 0; l < lineCount; l++) {
+			int[] inARow = new int[n];
+			for (int i = 0; i < n; i++) {
+				inARow[i] = lines[l * n + i];
+			}
+			totalInARows.add(inARow);
+		}
+		return totalInARows;
+	}
+
+	/**
+	 * toString method for testing purposes
+	 */
+	public String toString() {
+		String retString = "";
+		for (int l = 0; l < lineCount; l++) {
+			for (int i = 0; i < n; i++) {
+				retString += lines[l * n + i] + " ";
+			}
+			retString += "\n";
+		}
+		return retString;
+	}
+
+	/**
+	 * Tests if, given an index and a game state, if a checker can be
+	 * directly placed in that index
+	 * @param Connect4State state
+	 * @param int index
+	 * @return boolean (true if can directly place checker in index)
+	 */
+	public boolean possibleChecker(Connect4State state, int index) {
+		// If index is not in the first row
+		// Note that this assumes a crazy index will not be passed
+		if (index >= Connect4Game.COLS) {
+			// Return if the spot directly below the index is full and the given
+			// spot is empty
+			return ((((Connect4Game) state).getBoardArray()[index-Connect4Game.COLS]) > 0) &&
+					((((Connect4Game) state).getBoardArray()[index]) == 0);
+		}
+		// Otherwise, return if the spot is empty (in the first row)
+		return (((Connect4Game) state).getBoardArray()[index]) == 0;
+	}
+
+	/**
+	 * Converts a cell index (r*COLS + c) to its bit in a Connect4Game bitboard
+	 * @param int cell
+	 * @return int bit index
+	 */
+	static int bitIndex(int cell) {
+		return (cell % Connect4Game.COLS) * Connect4Game.COL_HEIGHT + cell / Connect4Game.COLS;
+	}
+} // This brace } ends the NInARow Class
@@ -0,0 +1,61 @@
+package connect4;
+
+/**
+ * A view that shows nothing and has no one to ask, for games played by the
+ * computer alone (see SelfPlay).  Moves and messages are thrown away, and
+ * asking it a question is an error, since only human players ask.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class NullConnect4View implements Connect4View {
+
+	/**
+	 * Displays nothing
+	 * @param state current state of the game
+	 */
+	public void display(Connect4State state) {
+	}
+
+	/**
+	 * There is no user to ask for a move
+	 * @param state current state of the game
+	 * @throws UnsupportedOperationException always
+	 */
+	public int getUserMove(Connect4State state) {
+		throw new UnsupportedOperationException("No user to ask for a move");
+	}
+
+	/**
+	 * Reports nothing
+	 * @param chosenMove the move made
+	 * @param name the player's name
+	 */
+	public void reportMove(int chosenMove, String name) {
+	}
+
+	/**
+	 * There is no user to ask
+	 * @param question the question to ask
+	 * @throws UnsupportedOperationException always
+	 */
+	public int getIntAnswer(String question) {
+		throw new UnsupportedOperationException("No user to ask: " + question);
+	}
+
+	/**
+	 * Reports nothing
+	 * @param message the message to be reported
+	 */
+	public void reportToUser(String message) {
+	}
+
+	/**
+	 * There is no user to ask
+	 * @param question the question to ask
+	 * @throws UnsupportedOperationException always
+	 */
+	public String getAnswer(String question) {
+		throw new UnsupportedOperationException("No user to ask: " + question);
+	}
+} // This brace } ends the NullConnect4View Class
@@ -0,0 +1,153 @@
+package connect4;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+
+/**
+ * Exact scores (see Connect4Solver) and best moves of every position up to a
+ * number of moves into the game, solved ahead of time because positions near
+ * the start take by far the longest to search.  The book is a memory-mapped
+ * file (see ScoredPositionFile) that keeps a position and its mirror image
+ * once, magic number "C4BK", with the number of plies in the header.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class OpeningBook {
+	// Returned by getScore when the position is not in the book
+	public static final int MISSING = ScoredPositionFile.MISSING;
+
+	// First bytes of a book file, and the version of the format
+	private static final int MAGIC = 0x4334424B;
+	private static final int VERSION = 2;
+
+	// Instance variables
+	private final ScoredPositionFile entries;   // The mapped file
+
+	/**
+	 * Opens a book file
+	 * @param File file
+	 * @throws IOException (also if the file is not a book)
+	 */
+	public OpeningBook(File file) throws IOException {
+		entries = new ScoredPositionFile(file, MAGIC, VERSION);
+	}
+
+	/**
+	 * Gets the number of moves into the game the book covers
+	 * @return int plies
+	 */
+	public int getPlies() {
+		return entries.getParameter();
+	}
+
+	/**
+	 * Gets the number of positions in the book (counting a position and its mirror image once)
+	 * @return int size
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Looks the score of a position up
+	 * @param long key (see Connect4Position.key)
+	 * @return int score for the player to move, or MISSING
+	 */
+	public int getScore(long key) {
+		return entries.getScore(key);
+	}
+
+	/**
+	 * Looks the best move of a position up
+	 * @param Connect4Position position
+	 * @return int column, or -1 if the position is not in the book
+	 */
+	public int getMove(Connect4Position position) {
+		return entries.getMove(position.key());
+	}
+
+	/**
+	 * Solves every position from the start of the game up to a number of moves
+	 * in (except those where the game is already over) and writes the book file
+	 * @param Connect4Solver solver
+	 * @param int plies
+	 * @param File file
+	 * @return int number of positions written
+	 * @throws IOException
+	 */
+	public static int build(Connect4Solver solver, int plies, File file) throws IOException {
+		return build(solver, new Connect4Position(), plies, file);
+	}
+
+	/**
+	 * Solves every position reachable from a starting position, up to a number of
+	 * moves into the game, and writes the book file
+	 * @param Connect4Solver solver
+	 * @param Connect4Position start (the game must not be over)
+	 * @param int plies (counted from the start of the game, not from the starting position)
+	 * @param File file
+	 * @return int number of positions written
+	 * @throws IOException
+	 */
+	public static int build(Connect4Solver solver, Connect4Position start, int plies, File file) throws IOException {
+		// List the positions one move deeper at a time, each only once (with its mirror image)
+		HashSet<Long> seen = new HashSet<Long>();
+		ArrayList<Connect4Position> positions = new ArrayList<Connect4Position>();
+		if (start.getMoves() <= plies) {
+			positions.add(start);
+		}
+		for (int i = 0; i < positions.size(); i++) {
+			Connect4Position position = positions.get(i);
+			if (position.getMoves() == plies) {
+				continue;
+			}
+			for (int col = 0; col < Connect4State.COLS; col++) {
+				if (position.canPlay(col) && !position.isWinningMove(col)) {
+					Connect4Position next = new Connect4Position(position);
+					next.play(col);
+					long key = next.key();
+					if (next.getMoves() < Connect4Position.SPOTS && seen.add(Math.min(key, Connect4Position.mirror(key)))) {
+						positions.add(next);
+					}
+				}
+			}
+		}
+		// Solve the deepest positions first, so the solver's table already holds
+		// much of what the searches of the shallower positions need
+		long[] packed = new long[positions.size()];
+		for (int i = positions.size() - 1; i >= 0; i--) {
+			Connect4Position position = positions.get(i);
+			int[] scores = solver.analyze(position);
+			int move = Connect4Solver.bestMove(scores);
+			packed[i] = ScoredPositionFile.entry(position.key(), scores[move], move);
+		}
+		ScoredPositionFile.write(file, MAGIC, VERSION, plies, packed);
+		return packed.length;
+	}
+
+	/**
+	 * Builds a book file
+	 * @param String [] args (plies, file name, and optionally the solver's table
+	 *   megabytes and the moves to the starting position, as column digits)
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: java connect4.OpeningBook <plies> <file> [table megabytes] [start moves]");
+			System.exit(1);
+		}
+		int plies = Integer.parseInt(args[0]);
+		Connect4Solver solver = args.length > 2 ? new Connect4Solver(Integer.parseInt(args[2])) : new Connect4Solver();
+		Connect4Position start = new Connect4Position();
+		if (args.length > 3 && start.play(args[3]) != args[3].length()) {
+			System.err.println("Invalid start moves: " + args[3]);
+			System.exit(1);
+		}
+		long startTime = System.currentTimeMillis();
+		int count = build(solver, start, plies, new File(args[1]));
+		System.out.println(count + " positions solved in " + (System.currentTimeMillis() - startTime) + " ms");
+	}
+} // This brace } ends the OpeningBook Class
@@ -0,0 +1,127 @@
+package connect4;
+
+/**
+ * Counts the positions at the end of every line of play a number of moves
+ * long ("perft", from chess programming).  A game that ends on the way
+ * counts as one position and is not played on.  The counts are known for the
+ * empty board, so they check that moves are made, taken back and found to
+ * win correctly, and the time taken measures how fast moves are made.
+ *
+ * There are two move makers to count with: the game state the computer
+ * player searches on (Connect4Game, which also keeps the evaluation and hash
+ * up to date) and the bare bitboards of the solver (Connect4Position).  Both
+ * must give the same counts.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class Perft {
+
+	/**
+	 * Not created: only has static methods
+	 */
+	private Perft() {
+	}
+
+	/**
+	 * Counts the positions at the end of every line of play, with the game state
+	 * @param Connect4Game state (moves are made and taken back on it)
+	 * @param int depth (number of moves in each line)
+	 * @return long positions
+	 */
+	public static long perft(Connect4Game state, int depth) {
+		if (depth == 0 || state.gameIsOver()) {
+			return 1;
+		}
+		long count = 0;
+		for (int col = 0; col < Connect4State.COLS; col++) {
+			if (state.isValidMove(col)) {
+				state.makeMove(col);
+				count += Perft.perft(state, depth - 1);
+				state.undoMove(col);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the positions at the end of every line of play, with bitboards
+	 * @param Connect4Position position (where the game is not over)
+	 * @param int depth (number of moves in each line)
+	 * @return long positions
+	 */
+	public static long perft(Connect4Position position, int depth) {
+		return Perft.perft(position.getCurrent(), position.getMask(), position.getMoves(), depth);
+	}
+
+	/**
+	 * Counts the positions at the end of every line of play from bitboards
+	 * @param long current (checkers of the player to move)
+	 * @param long mask (all checkers)
+	 * @param int moves (number of checkers)
+	 * @param int depth
+	 * @return long positions
+	 */
+	private static long perft(long current, long mask, int moves, int depth) {
+		if (depth == 0 || moves == Connect4Position.SPOTS) {
+			return 1;
+		}
+		long possible = Connect4Position.possible(mask);
+		// A winning move ends the game, so it is a position at the end of its line
+		long wins = possible & Connect4Position.winningSpots(current, mask);
+		if (depth == 1) {
+			return Long.bitCount(possible);
+		}
+		long count = Long.bitCount(wins);
+		possible &= ~wins;
+		while (possible != 0) {
+			long move = possible & -possible;
+			possible ^= move;
+			// Play the move: the opponent becomes the player to move
+			count += Perft.perft(current ^ mask, mask | move, moves + 1, depth - 1);
+		}
+		return count;
+	}
+
+	/**
+	 * Prints the counts for each depth up to a limit, with both move makers,
+	 * and how fast each made moves
+	 * @param String [] args (greatest depth, and optionally the moves to the
+	 *   starting position, as column digits)
+	 */
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.err.println("Usage: java connect4.Perft <depth> [start moves]");
+			System.exit(1);
+		}
+		int maxDepth = Integer.parseInt(args[0]);
+		Connect4Game state = new Connect4Game(0, new Player[2], new NullConnect4View());
+		Connect4Position position = new Connect4Position();
+		String start = args.length > 1 ? args[1] : "";
+		for (char digit : start.toCharArray()) {
+			int col = digit - '0';
+			if (state.gameIsOver() || !state.isValidMove(col)) {
+				System.err.println("Invalid start moves: " + start);
+				System.exit(1);
+			}
+			state.makeMove(col);
+			position.play(col);
+		}
+		if (state.gameIsOver()) {
+			System.err.println("The game is over after " + start);
+			System.exit(1);
+		}
+		for (int depth = 1; depth <= maxDepth; depth++) {
+			long startTime = System.nanoTime();
+			long gameCount = Perft.perft(state, depth);
+			long gameNanos = System.nanoTime() - startTime;
+			startTime = System.nanoTime();
+			long bitboardCount = Perft.perft(position, depth);
+			long bitboardNanos = System.nanoTime() - startTime;
+			System.out.printf("%2d %,16d  game state %8.1f ms %7.1f M/s   bitboards %8.1f ms %7.1f M/s%s%n",
+					depth, gameCount, gameNanos / 1e6, gameCount * 1e3 / Math.max(1, gameNanos),
+					bitboardNanos / 1e6, bitboardCount * 1e3 / Math.max(1, bitboardNanos),
+					gameCount == bitboardCount ? "" : "   MISMATCH: bitboards count " + bitboardCount);
+		}
+	}
+} // This brace } ends the Perft Class
@@ -0,0 +1,93 @@
+package connect4;
+
+import java.util.Arrays;
+
+/**
+ * Many positions to evaluate together (see BatchEvaluator), laid out as one
+ * array per field rather than one object per position, so an evaluator can
+ * stream through them: for each position, the checkers of the player to
+ * score it for and the checkers of the other player, as bitboards (see
+ * Connect4Game).  The batch grows as positions are added and can be cleared
+ * and filled again without allocating.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class PositionBatch {
+	// Instance variables
+	private long [] mine;		// Checkers of the player each position is scored for
+	private long [] theirs;		// Checkers of the other player
+	private int size;			// Number of positions
+
+	/**
+	 * Creates an empty batch
+	 * @param int capacity (positions it can hold before growing)
+	 */
+	public PositionBatch(int capacity) {
+		mine = new long[Math.max(1, capacity)];
+		theirs = new long[mine.length];
+	}
+
+	/**
+	 * Adds a position, to be scored for the player to move (as ComputerConnect4Player.staticEval does)
+	 * @param Connect4Game state
+	 */
+	public void add(Connect4Game state) {
+		this.add(state, state.getPlayerNum());
+	}
+
+	/**
+	 * Adds a position, to be scored for either player
+	 * @param Connect4Game state
+	 * @param int playerNum (player to score it for)
+	 */
+	public void add(Connect4Game state, int playerNum) {
+		this.add(state.getBitboard(playerNum), state.getBitboard(1 - playerNum));
+	}
+
+	/**
+	 * Adds a position given as bitboards
+	 * @param long mine (checkers of the player to score it for)
+	 * @param long theirs (checkers of the other player)
+	 */
+	public void add(long mine, long theirs) {
+		if (size == this.mine.length) {
+			this.mine = Arrays.copyOf(this.mine, 2 * size);
+			this.theirs = Arrays.copyOf(this.theirs, 2 * size);
+		}
+		this.mine[size] = mine;
+		this.theirs[size] = theirs;
+		size++;
+	}
+
+	/**
+	 * Empties the batch (keeping its arrays)
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Gets the number of positions
+	 * @return int size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the checkers of the players the positions are scored for
+	 * @return long [] (the first size entries are the positions; a new array once the batch grows)
+	 */
+	public long[] getMine() {
+		return mine;
+	}
+
+	/**
+	 * Gets the checkers of the other players
+	 * @return long [] (the first size entries are the positions; a new array once the batch grows)
+	 */
+	public long[] getTheirs() {
+		return theirs;
+	}
+} // This brace } ends the PositionBatch Class
@@ -0,0 +1,504 @@
+package connect4;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * An index of archived games (see GameRecordWriter) by the positions they
+ * reached: for each position, which games reached it, and for each move
+ * played from it, how many of those games the player making the move won,
+ * drew and lost.  A computer player can use it as an "experience book" (see
+ * ComputerConnect4Player.setExperienceBook).
+ *
+ * Positions are looked up by their canonical key: the key of the position
+ * or of its mirror image (see Connect4Position.key), whichever is smaller,
+ * so a position and its mirror image share their entries (with the moves
+ * mirrored).  Unlike a hash, the key cannot stand for two positions.
+ *
+ * The index is a directory of segments (see IndexSegment): sorted,
+ * memory-mapped files that never change once written, in the manner of a
+ * log-structured merge tree.  Loading games writes new segments, and when
+ * there are more than MAX_SEGMENTS the smallest are merged into one, so a
+ * lookup only has a few binary searches to do however many times games were
+ * added.  A MANIFEST file lists the segments in use and the number of games,
+ * and is replaced in one step once the segments it names are on disk, so the
+ * index is whole even if loading stops part way or the power fails (the
+ * games loaded so far are kept).
+ *
+ * Games are loaded in parallel: the file is read on one thread, and batches
+ * of games are turned into sorted runs (see IndexRun) on a pool of workers,
+ * at most a few batches per worker ahead of the runs being collected, and
+ * the runs are merged into a segment whenever they hold enough postings.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class PositionIndex {
+	// Outcomes in getMoveStats, for the player making the move
+	public static final int WINS = IndexEntries.WINS;
+	public static final int DRAWS = IndexEntries.DRAWS;
+	public static final int LOSSES = IndexEntries.LOSSES;
+
+	// Most segments before the smallest are merged, and how many are merged at once
+	public static final int MAX_SEGMENTS = 8;
+	public static final int MERGE_FACTOR = 4;
+
+	// Postings collected in memory before they are written as a segment, if not set
+	public static final int DEFAULT_SEGMENT_POSTINGS = 1 << 22;
+
+	// Batches of games read ahead of the runs being collected, per worker
+	private static final int QUEUE_PER_WORKER = 4;
+
+	// Name of the file listing the segments
+	private static final String MANIFEST = "MANIFEST";
+
+	// Instance variables
+	private final File directory;			// Where the segments are
+	private volatile IndexSegment [] segments;	// Segments in use (replaced, never changed, so lookups need no lock)
+	private int gameCount;					// Games loaded, numbered from 0
+	private int nextSegment;				// Number of the next segment file
+	private int segmentPostings = DEFAULT_SEGMENT_POSTINGS;	// Postings per segment written by load
+
+	/**
+	 * Opens an index, creating an empty one if the directory does not have one
+	 * @param File directory
+	 * @throws IOException (also if a segment is missing or not valid)
+	 */
+	public PositionIndex(File directory) throws IOException {
+		this.directory = directory;
+		Files.createDirectories(directory.toPath());
+		List<IndexSegment> opened = new ArrayList<IndexSegment>();
+		File manifest = new File(directory, MANIFEST);
+		if (manifest.isFile()) {
+			List<String> lines = Files.readAllLines(manifest.toPath(), StandardCharsets.UTF_8);
+			if (lines.isEmpty() || !lines.get(0).startsWith("games ")) {
+				throw new IOException(manifest + " is not valid");
+			}
+			gameCount = Integer.parseInt(lines.get(0).substring("games ".length()).trim());
+			for (String name : lines.subList(1, lines.size())) {
+				if (!name.trim().isEmpty()) {
+					opened.add(new IndexSegment(new File(directory, name.trim())));
+				}
+			}
+		}
+		segments = opened.toArray(new IndexSegment[0]);
+		// Segment files are numbered in the order they are written
+		for (File file : directory.listFiles()) {
+			String name = file.getName();
+			if (name.matches("segment-\\d+\\.c4ix")) {
+				int number = Integer.parseInt(name.substring("segment-".length(), name.indexOf('.')));
+				nextSegment = Math.max(nextSegment, number + 1);
+			}
+		}
+	}
+
+	/**
+	 * Gets the canonical key of a position
+	 * @param Connect4Position position
+	 * @return long (the smaller of its key and its mirror image's key)
+	 */
+	public static long canonicalKey(Connect4Position position) {
+		long key = position.key();
+		return Math.min(key, Connect4Position.mirror(key));
+	}
+
+	/**
+	 * Gets the column a move is kept under: mirrored if the position's mirror
+	 * image has the canonical key, and the smaller of the two mirror columns if
+	 * the position is its own mirror image (as the two moves are the same)
+	 * @param Connect4Position position
+	 * @param int move (column)
+	 * @return int (column in the index)
+	 */
+	static int canonicalMove(Connect4Position position, int move) {
+		long key = position.key();
+		long mirrored = Connect4Position.mirror(key);
+		int other = Connect4State.COLS - 1 - move;
+		return mirrored < key ? other : mirrored == key ? Math.min(move, other) : move;
+	}
+
+	/**
+	 * Gets the outcome of a game for the player making one of its moves
+	 * @param int result (see GameRecord)
+	 * @param int ply (of the move)
+	 * @return int (WINS, DRAWS or LOSSES, or -1 if the game was not finished)
+	 */
+	static int outcome(int result, int ply) {
+		if (result == GameRecord.DRAW) {
+			return DRAWS;
+		}
+		if (result == GameRecord.UNFINISHED) {
+			return -1;
+		}
+		return result == ply % 2 ? WINS : LOSSES;
+	}
+
+	/**
+	 * Sets how many postings to collect in memory before writing them as a
+	 * segment when loading (more makes fewer, bigger segments but takes more memory)
+	 * @param int postings
+	 */
+	public void setSegmentPostings(int postings) {
+		this.segmentPostings = Math.max(1, postings);
+	}
+
+	/**
+	 * Gets the number of games loaded
+	 * @return int
+	 */
+	public int getGameCount() {
+		return gameCount;
+	}
+
+	/**
+	 * Gets the number of segments in use
+	 * @return int
+	 */
+	public int getSegmentCount() {
+		return segments.length;
+	}
+
+	/**
+	 * Gets how the games that reached a position went for each move played from it
+	 * @param Connect4Position position
+	 * @return int [][] (for each column, the number of games the player to move won, drew and lost after playing it)
+	 */
+	public int[][] getMoveStats(Connect4Position position) {
+		long key = PositionIndex.canonicalKey(position);
+		boolean mirrored = Connect4Position.mirror(position.key()) < position.key();
+		int [][] stats = new int[Connect4State.COLS][IndexEntries.OUTCOMES];
+		for (IndexSegment segment : segments) {
+			for (int i = segment.findStats(key); i < segment.getStatsCount(); i++) {
+				long keyMove = segment.getKeyMove(i);
+				if (keyMove >>> IndexEntries.MOVE_BITS != key) {
+					break;
+				}
+				int move = (int) (keyMove & ((1 << IndexEntries.MOVE_BITS) - 1));
+				int col = mirrored ? Connect4State.COLS - 1 - move : move;
+				for (int outcome = 0; outcome < IndexEntries.OUTCOMES; outcome++) {
+					stats[col][outcome] += segment.getCount(i, outcome);
+				}
+			}
+		}
+		return stats;
+	}
+
+	/**
+	 * Gets the games that reached a position
+	 * @param Connect4Position position
+	 * @param int limit (most games to get)
+	 * @return int [] (numbers of the games, in order, up to the limit)
+	 */
+	public int[] getGames(Connect4Position position, int limit) {
+		long key = PositionIndex.canonicalKey(position);
+		int [] games = new int[0];
+		for (IndexSegment segment : segments) {
+			int start = segment.findPostings(key);
+			int end = start;
+			while (end < segment.getPostingCount() && segment.getPostingKey(end) == key) {
+				end++;
+			}
+			int old = games.length;
+			games = Arrays.copyOf(games, old + end - start);
+			for (int i = start; i < end; i++) {
+				games[old + i - start] = segment.getPostingGame(i);
+			}
+		}
+		// Each segment holds its own games in order
+		Arrays.sort(games);
+		return Arrays.copyOf(games, Math.min(limit, games.length));
+	}
+
+	/**
+	 * Picks the move that has done best from a position: the highest score
+	 * (wins plus half the draws, per game) among the moves played in enough games
+	 * @param Connect4Position position
+	 * @param int minGames (fewest games a move must have been played in; a move never played is never picked)
+	 * @return int (column, or -1 if no move has been played in enough games)
+	 */
+	public int getBestMove(Connect4Position position, int minGames) {
+		int [][] stats = this.getMoveStats(position);
+		int best = -1;
+		double bestScore = -1;
+		int bestGames = 0;
+		for (int col = 0; col < Connect4State.COLS; col++) {
+			int games = stats[col][WINS] + stats[col][DRAWS] + stats[col][LOSSES];
+			if (games < Math.max(1, minGames) || !position.canPlay(col)) {
+				continue;
+			}
+			double score = (stats[col][WINS] + 0.5 * stats[col][DRAWS]) / games;
+			if (score > bestScore || score == bestScore && games > bestGames) {
+				best = col;
+				bestScore = score;
+				bestGames = games;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Adds the games of a game record file to the index.  They are numbered
+	 * on from the games already loaded.
+	 * @param GameRecordReader in
+	 * @param int workers (threads turning games into runs)
+	 * @return int (number of games added)
+	 * @throws IOException (also if a record or game is not valid; the games before it are kept)
+	 */
+	public synchronized int load(GameRecordReader in, int workers) throws IOException {
+		int first = gameCount;
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, workers));
+		ArrayDeque<Future<IndexRun>> pending = new ArrayDeque<Future<IndexRun>>();
+		List<IndexRun> runs = new ArrayList<IndexRun>();
+		int [] postings = {0};
+		try {
+			int next = gameCount;
+			List<GameRecord> batch = new ArrayList<GameRecord>();
+			GameRecord game;
+			IOException readError = null;
+			do {
+				// A record that cannot be read ends the file, once the games before it are in
+				try {
+					game = in.read();
+				}
+				catch (IOException ex) {
+					readError = ex;
+					game = null;
+				}
+				if (game != null) {
+					batch.add(game);
+				}
+				if (batch.size() == IndexRun.MAX_GAMES || (game == null && !batch.isEmpty())) {
+					List<GameRecord> games = batch;
+					int firstGame = next;
+					pending.add(pool.submit(() -> new IndexRun(games, firstGame)));
+					next += games.size();
+					batch = new ArrayList<GameRecord>();
+				}
+				// Collect the oldest run before reading on, once enough are waiting
+				while (pending.size() >= Math.max(1, workers) * QUEUE_PER_WORKER || (game == null && !pending.isEmpty())) {
+					this.collect(pending.remove(), runs, postings);
+				}
+			} while (game != null);
+			if (!runs.isEmpty()) {
+				this.addSegment(runs);
+			}
+			if (readError != null) {
+				throw readError;
+			}
+		}
+		finally {
+			pool.shutdownNow();
+		}
+		return gameCount - first;
+	}
+
+	/**
+	 * Waits for a run and adds it to those collected, writing them as a
+	 * segment once they hold enough postings.  If the run stopped at an
+	 * invalid game, the runs so far are written and the rest are not loaded.
+	 * @param Future<IndexRun> result
+	 * @param List<IndexRun> runs (collected so far)
+	 * @param int [] postings (postings in them)
+	 * @throws IOException (also if a game is not valid)
+	 */
+	private void collect(Future<IndexRun> result, List<IndexRun> runs, int [] postings) throws IOException {
+		IndexRun run;
+		try {
+			run = result.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Loading interrupted");
+		}
+		catch (ExecutionException ex) {
+			throw new IOException(ex.getCause().getMessage(), ex.getCause());
+		}
+		runs.add(run);
+		postings[0] += run.getPostingCount();
+		if (run.getError() != null) {
+			// Keep the games before the invalid one
+			this.addSegment(runs);
+			throw new IOException(run.getError());
+		}
+		if (postings[0] >= segmentPostings) {
+			this.addSegment(runs);
+			runs.clear();
+			postings[0] = 0;
+		}
+	}
+
+	/**
+	 * Writes runs as a new segment and starts using it, then merges segments
+	 * if there are too many
+	 * @param List<IndexRun> runs (of the games after those loaded, in order)
+	 * @throws IOException
+	 */
+	private void addSegment(List<IndexRun> runs) throws IOException {
+		File file = this.newSegmentFile();
+		IndexSegment.write(file, runs);
+		List<IndexSegment> updated = new ArrayList<IndexSegment>(Arrays.asList(segments));
+		updated.add(new IndexSegment(file));
+		this.replaceSegments(updated, runs.get(runs.size() - 1).getEndGame());
+		this.mergeSmallest();
+	}
+
+	/**
+	 * Merges the smallest segments while there are more than MAX_SEGMENTS
+	 * (and they fit in one segment)
+	 * @throws IOException
+	 */
+	private void mergeSmallest() throws IOException {
+		while (segments.length > MAX_SEGMENTS) {
+			List<IndexSegment> sorted = new ArrayList<IndexSegment>(Arrays.asList(segments));
+			sorted.sort(Comparator.comparingInt(IndexSegment::getPostingCount));
+			List<IndexSegment> smallest = sorted.subList(0, Math.min(MERGE_FACTOR, sorted.size()));
+			if (!IndexSegment.fits(smallest)) {
+				return;
+			}
+			this.merge(new ArrayList<IndexSegment>(smallest));
+		}
+	}
+
+	/**
+	 * Merges every segment into one, which makes lookups fastest
+	 * @throws IOException (also if the index is too big for one segment)
+	 */
+	public synchronized void merge() throws IOException {
+		if (segments.length > 1) {
+			this.merge(Arrays.asList(segments));
+		}
+	}
+
+	/**
+	 * Merges some of the segments into one and starts using it in their place
+	 * @param List<IndexSegment> merged
+	 * @throws IOException
+	 */
+	private void merge(List<IndexSegment> merged) throws IOException {
+		File file = this.newSegmentFile();
+		IndexSegment.write(file, merged);
+		List<IndexSegment> updated = new ArrayList<IndexSegment>();
+		for (IndexSegment segment : segments) {
+			if (!merged.contains(segment)) {
+				updated.add(segment);
+			}
+		}
+		updated.add(new IndexSegment(file));
+		this.replaceSegments(updated, gameCount);
+		// Lookups already under way keep their mappings, which outlive the files
+		for (IndexSegment segment : merged) {
+			Files.deleteIfExists(segment.getFile().toPath());
+		}
+	}
+
+	/**
+	 * Gets the file for a new segment
+	 * @return File
+	 */
+	private File newSegmentFile() {
+		return new File(directory, String.format("segment-%06d.c4ix", nextSegment++));
+	}
+
+	/**
+	 * Writes a new manifest (replacing the old one in one step) and starts
+	 * using its segments
+	 * @param List<IndexSegment> updated (segments to use)
+	 * @param int games (number of games in them)
+	 * @throws IOException
+	 */
+	private void replaceSegments(List<IndexSegment> updated, int games) throws IOException {
+		StringBuilder manifest = new StringBuilder("games " + games + "\n");
+		for (IndexSegment segment : updated) {
+			manifest.append(segment.getFile().getName()).append('\n');
+		}
+		File temporary = new File(directory, MANIFEST + ".tmp");
+		FileChannel out = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		try {
+			out.write(ByteBuffer.wrap(manifest.toString().getBytes(StandardCharsets.UTF_8)));
+			// On disk before it replaces the old one, so a crash leaves one or the other whole
+			out.force(true);
+		}
+		finally {
+			out.close();
+		}
+		Files.move(temporary.toPath(), new File(directory, MANIFEST).toPath(),
+				StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		segments = updated.toArray(new IndexSegment[0]);
+		gameCount = games;
+	}
+
+	/**
+	 * Loads game record files into an index, merges it, or looks up a position
+	 * @param String [] args ("load", the index directory, game record files and
+	 *   optionally the number of workers last; "merge" and the index directory;
+	 *   or "query", the index directory and the moves to the position as column digits)
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2 || !Arrays.asList("load", "merge", "query").contains(args[0])) {
+			System.err.println("Usage: java connect4.PositionIndex load <index directory> <game record file>... [workers]");
+			System.err.println("       java connect4.PositionIndex merge <index directory>");
+			System.err.println("       java connect4.PositionIndex query <index directory> [moves]");
+			System.exit(1);
+		}
+		PositionIndex index = new PositionIndex(new File(args[1]));
+		long start = System.nanoTime();
+		if (args[0].equals("load")) {
+			int last = args.length;
+			int workers = Runtime.getRuntime().availableProcessors();
+			if (args.length > 3 && args[args.length - 1].matches("\\d+")) {
+				workers = Integer.parseInt(args[--last]);
+			}
+			for (int i = 2; i < last; i++) {
+				GameRecordReader in = new GameRecordReader(new File(args[i]));
+				try {
+					int games = index.load(in, workers);
+					System.out.printf("%s: %d games%n", args[i], games);
+				}
+				finally {
+					in.close();
+				}
+			}
+		}
+		else if (args[0].equals("merge")) {
+			index.merge();
+		}
+		else {
+			Connect4Position position = new Connect4Position();
+			String moves = args.length > 2 ? args[2] : "";
+			if (position.play(moves) != moves.length()) {
+				System.err.println("Invalid moves: " + moves);
+				System.exit(1);
+			}
+			int [][] stats = index.getMoveStats(position);
+			for (int col = 0; col < Connect4State.COLS; col++) {
+				int games = stats[col][WINS] + stats[col][DRAWS] + stats[col][LOSSES];
+				if (games > 0) {
+					System.out.printf("%d: %d games, won %d, drew %d, lost %d (%.1f%%)%n", col, games,
+							stats[col][WINS], stats[col][DRAWS], stats[col][LOSSES],
+							100 * (stats[col][WINS] + 0.5 * stats[col][DRAWS]) / games);
+				}
+			}
+			System.out.println("Games: " + Arrays.toString(index.getGames(position, 20)));
+		}
+		System.out.printf("%d games in %d segments, %.1f s%n", index.getGameCount(), index.getSegmentCount(),
+				(System.nanoTime() - start) / 1e9);
+	}
+} // This brace } ends the PositionIndex Class
@@ -0,0 +1,194 @@
+package connect4;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * A memory-mapped file of positions with their exact scores (see
+ * Connect4Solver) and best moves, shared by the opening book and the endgame
+ * tablebase.  Mapping the file rather than reading it makes opening instant
+ * and costs no heap, and a lookup is a binary search of the mapping.
+ *
+ * A position and its mirror image have the same score, so only the one with
+ * the smaller key (see Connect4Position.key) is kept, and its best move is
+ * mirrored back when the other one is looked up.
+ *
+ * The file holds a 4-byte magic number, the format version, a number whose
+ * meaning depends on the kind of file, and the number of entries, then the
+ * entries in increasing order, each packed into 8 bytes: the key (49 bits),
+ * the score plus 32 (6 bits) and the best move (3 bits).
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+class ScoredPositionFile {
+	// Returned by getScore when the position is not in the file
+	static final int MISSING = Integer.MIN_VALUE;
+
+	// Bytes before the first entry, and per entry
+	private static final int HEADER_BYTES = 16;
+	private static final int ENTRY_BYTES = 8;
+	// Bits of an entry below the key, and the offset added to scores to make them positive
+	private static final int KEY_SHIFT = 9;
+	private static final int SCORE_OFFSET = 32;
+
+	// Instance variables
+	private final MappedByteBuffer entries;   // The mapped file
+	private final int parameter;              // Number from the header (plies of a book, empty spots of a tablebase)
+	private final int size;                   // Number of entries
+
+	/**
+	 * Opens a file
+	 * @param File file
+	 * @param int magic (first 4 bytes the file must have)
+	 * @param int version (format version the file must have)
+	 * @throws IOException (also if the file is not of the expected kind)
+	 */
+	ScoredPositionFile(File file, int magic, int version) throws IOException {
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			// One mapping holds at most 2 GB (map would throw IllegalArgumentException)
+			if (in.length() > Integer.MAX_VALUE) {
+				throw new IOException(file + " is too big to open (over 2 GB)");
+			}
+			// The mapping stays valid after the file is closed
+			entries = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, in.length());
+		}
+		finally {
+			in.close();
+		}
+		if (entries.capacity() < HEADER_BYTES || entries.getInt(0) != magic || entries.getInt(4) != version) {
+			throw new IOException(file + " is not the right kind of file");
+		}
+		parameter = entries.getInt(8);
+		size = entries.getInt(12);
+		if (entries.capacity() != HEADER_BYTES + (long) size * ENTRY_BYTES) {
+			throw new IOException(file + " is not complete");
+		}
+	}
+
+	/**
+	 * Gets the number stored in the header
+	 * @return int parameter
+	 */
+	int getParameter() {
+		return parameter;
+	}
+
+	/**
+	 * Gets the number of entries
+	 * @return int size
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Looks the score of a position up
+	 * @param long key (see Connect4Position.key)
+	 * @return int score for the player to move, or MISSING
+	 */
+	int getScore(long key) {
+		long entry = find(Math.min(key, Connect4Position.mirror(key)));
+		return entry < 0 ? MISSING : score(entry);
+	}
+
+	/**
+	 * Looks the best move of a position up
+	 * @param long key (see Connect4Position.key)
+	 * @return int column, or -1 if the position is not in the file
+	 */
+	int getMove(long key) {
+		long mirrorKey = Connect4Position.mirror(key);
+		long entry = find(Math.min(key, mirrorKey));
+		if (entry < 0) {
+			return -1;
+		}
+		int move = (int) (entry & 0x7);
+		return mirrorKey < key ? Connect4State.COLS - 1 - move : move;
+	}
+
+	/**
+	 * Finds an entry by binary search
+	 * @param long key (of the position kept in the file)
+	 * @return long entry, or -1 if it is not in the file
+	 */
+	private long find(long key) {
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			long entry = entries.getLong(HEADER_BYTES + mid * ENTRY_BYTES);
+			long midKey = entry >>> KEY_SHIFT;
+			if (midKey < key) {
+				low = mid + 1;
+			}
+			else if (midKey > key) {
+				high = mid - 1;
+			}
+			else {
+				return entry;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Packs a position's score and best move into an entry, the way round with the smaller key
+	 * @param long key (see Connect4Position.key)
+	 * @param int score (for the player to move)
+	 * @param int move (best column)
+	 * @return long entry
+	 */
+	static long entry(long key, int score, int move) {
+		long mirrorKey = Connect4Position.mirror(key);
+		if (mirrorKey < key) {
+			key = mirrorKey;
+			move = Connect4State.COLS - 1 - move;
+		}
+		return (key << KEY_SHIFT) | ((long) (score + SCORE_OFFSET) << 3) | move;
+	}
+
+	/**
+	 * Gets the score out of an entry
+	 * @param long entry
+	 * @return int score
+	 */
+	static int score(long entry) {
+		return (int) ((entry >>> 3) & 0x3F) - SCORE_OFFSET;
+	}
+
+	/**
+	 * Sorts entries and writes them to a file
+	 * @param File file
+	 * @param int magic
+	 * @param int version
+	 * @param int parameter (number to store in the header)
+	 * @param long [] packed (entries made by entry, which are sorted in place)
+	 * @throws IOException
+	 */
+	static void write(File file, int magic, int version, int parameter, long[] packed) throws IOException {
+		// Keys are the high bits, so sorting the entries sorts them by key
+		Arrays.sort(packed);
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			out.writeInt(magic);
+			out.writeInt(version);
+			out.writeInt(parameter);
+			out.writeInt(packed.length);
+			for (long entry : packed) {
+				out.writeLong(entry);
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+} // This brace } ends the ScoredPositionFile Class
@@ -0,0 +1,18 @@
+package connect4;
+
+/**
+ * The game tree search algorithms ComputerConnect4Player can use
+ * 
+ * @author Etai Klein & Katie Lachance
+ * 
+ */
+public enum SearchAlgorithm {
+	// Alpha-beta pruning, searching every move with the full window
+	ALPHA_BETA,
+	// Principal variation search: the first move gets the full window and the rest
+	// are only shown to be no better with a null window (searched again if they are)
+	PVS,
+	// MTD(f): a series of null window searches that close in on the value, starting
+	// from the last iteration's value and relying on the transposition table
+	MTDF
+}
@@ -0,0 +1,215 @@
+package connect4;
+
+/**
+ * What a computer player's search did to choose a move: how many positions
+ * it looked at, how many it evaluated at the horizon, where alpha-beta cut
+ * the tree off, how often the transposition table helped, how long it took,
+ * and the line of play it expects (the principal variation).  With several
+ * threads the counts are the totals of all of them and the principal
+ * variation is the first thread's.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class SearchStats {
+	// Instance variables
+	private long nodes;				// Moves made
+	private long leafEvals;			// Positions evaluated statically (at the horizon or game over)
+	private long [] cutoffs;		// Cutoffs at each ply (0 is the root)
+	private long firstMoveCutoffs;	// Cutoffs made by the first move tried
+	private long tableProbes;		// Positions looked up in the transposition table
+	private long tableHits;			// Positions found there
+	private long tableCutoffs;		// Positions whose stored value made searching them unnecessary
+	private long nanos;				// Time taken
+	private int depth;				// Deepest search completed
+	private int score;				// Value of the move chosen, for the player choosing it
+	private int [] principalVariation = new int[0];	// Moves expected, starting with the move chosen
+
+	/**
+	 * Creates empty statistics
+	 * @param int plies (most plies a search can reach)
+	 */
+	SearchStats(int plies) {
+		cutoffs = new long[plies];
+	}
+
+	/**
+	 * Adds another search's counts (not its time, depth or principal variation) to these
+	 * @param long nodes
+	 * @param long leafEvals
+	 * @param long [] cutoffs (by ply)
+	 * @param long firstMoveCutoffs
+	 * @param long tableProbes
+	 * @param long tableHits
+	 * @param long tableCutoffs
+	 */
+	void add(long nodes, long leafEvals, long [] cutoffs, long firstMoveCutoffs,
+			long tableProbes, long tableHits, long tableCutoffs) {
+		this.nodes += nodes;
+		this.leafEvals += leafEvals;
+		for (int ply = 0; ply < cutoffs.length; ply++) {
+			this.cutoffs[ply] += cutoffs[ply];
+		}
+		this.firstMoveCutoffs += firstMoveCutoffs;
+		this.tableProbes += tableProbes;
+		this.tableHits += tableHits;
+		this.tableCutoffs += tableCutoffs;
+	}
+
+	/**
+	 * Sets the time taken
+	 * @param long nanos
+	 */
+	void setNanos(long nanos) {
+		this.nanos = nanos;
+	}
+
+	/**
+	 * Sets the deepest search completed, the value it found and the moves it expects
+	 * @param int depth
+	 * @param int score
+	 * @param int [] principalVariation
+	 */
+	void setResult(int depth, int score, int [] principalVariation) {
+		this.depth = depth;
+		this.score = score;
+		this.principalVariation = principalVariation;
+	}
+
+	/**
+	 * Gets the number of moves made
+	 * @return long nodes
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Gets the number of positions evaluated statically
+	 * @return long leafEvals
+	 */
+	public long getLeafEvals() {
+		return leafEvals;
+	}
+
+	/**
+	 * Gets the number of cutoffs at a ply
+	 * @param int ply (0 for the root)
+	 * @return long cutoffs
+	 */
+	public long getCutoffs(int ply) {
+		return ply < cutoffs.length ? cutoffs[ply] : 0;
+	}
+
+	/**
+	 * Gets the number of cutoffs at every ply
+	 * @return long cutoffs
+	 */
+	public long getCutoffs() {
+		long total = 0;
+		for (long count : cutoffs) {
+			total += count;
+		}
+		return total;
+	}
+
+	/**
+	 * Gets the share of cutoffs made by the first move tried, which shows how
+	 * good the move ordering is (1 is perfect)
+	 * @return double (0 to 1)
+	 */
+	public double getFirstMoveCutoffRate() {
+		long total = this.getCutoffs();
+		return total == 0 ? 0 : (double) firstMoveCutoffs / total;
+	}
+
+	/**
+	 * Gets the number of positions looked up in the transposition table
+	 * @return long tableProbes
+	 */
+	public long getTableProbes() {
+		return tableProbes;
+	}
+
+	/**
+	 * Gets the number of positions found in the transposition table
+	 * @return long tableHits
+	 */
+	public long getTableHits() {
+		return tableHits;
+	}
+
+	/**
+	 * Gets the number of positions whose stored value made searching them unnecessary
+	 * @return long tableCutoffs
+	 */
+	public long getTableCutoffs() {
+		return tableCutoffs;
+	}
+
+	/**
+	 * Gets the time taken
+	 * @return long nanos
+	 */
+	public long getNanos() {
+		return nanos;
+	}
+
+	/**
+	 * Gets the number of moves made per second
+	 * @return double
+	 */
+	public double getNodesPerSecond() {
+		return nanos == 0 ? 0 : nodes * 1e9 / nanos;
+	}
+
+	/**
+	 * Gets the deepest search completed
+	 * @return int depth
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Gets the value the search found for the move chosen, for the player
+	 * choosing it (higher is better; 0 for a book move)
+	 * @return int score
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Gets the effective branching factor: the number of moves per position
+	 * that a tree of the same depth and size would have
+	 * @return double (0 if nothing was searched)
+	 */
+	public double getEffectiveBranchingFactor() {
+		return nodes == 0 ? 0 : Math.pow(nodes, 1.0 / (depth + 1));
+	}
+
+	/**
+	 * Gets the moves the search expects: the move chosen, the best reply, and so on
+	 * @return int [] columns
+	 */
+	public int[] getPrincipalVariation() {
+		return principalVariation.clone();
+	}
+
+	/**
+	 * Gets the statistics as one line of text
+	 * @return String
+	 */
+	public String toString() {
+		StringBuilder pv = new StringBuilder();
+		for (int move : principalVariation) {
+			pv.append(move);
+		}
+		return String.format("depth %d, score %d, %d nodes, %d leaf evals, %d cutoffs (%.0f%% first move), "
+				+ "table %d/%d hits, %d cutoffs, %.1f ms, %.0f nodes/s, branching %.2f, pv %s",
+				depth, score, nodes, leafEvals, this.getCutoffs(), 100 * this.getFirstMoveCutoffRate(),
+				tableHits, tableProbes, tableCutoffs, nanos / 1e6, this.getNodesPerSecond(),
+				this.getEffectiveBranchingFactor(), pv);
+	}
+} // This brace } ends the SearchStats Class
@@ -0,0 +1,621 @@
+package connect4;
+
+import java.util.Arrays;
+
+/**
+ * Runs the game tree search for a ComputerConnect4Player.  Each worker has
+ * its own copy of the board and its own move ordering tables, and workers
+ * only share the transposition table, so several of them can search the
+ * same position on different threads (see ComputerConnect4Player.setThreads).
+ * 
+ * @author Etai Klein & Katie Lachance
+ * 
+ */
+class SearchWorker implements Runnable {
+	// Deepest ply a search can reach (one per spot on the board, plus the root)
+	private static final int MAX_PLY = Connect4State.ROWS * Connect4State.COLS + 1;
+	// Columns from the center out, since center columns are in the most 4 in a rows
+	private static final int [] CENTER_ORDER = centerOrder();
+	// Ordering scores for the transposition table's move and the killer moves, above
+	// any history score (which is kept below HISTORY_LIMIT)
+	private static final int HASH_MOVE_SCORE = 1 << 30;
+	private static final int KILLER_SCORE = 1 << 29;
+	private static final int HISTORY_LIMIT = 1 << 20;
+	// Value of a root position the endgame tablebase knows is won, above any
+	// value the search can find (the exact score is added to it)
+	static final int KNOWN_WIN = 1 << 24;
+
+	// Instance variables
+	private final TranspositionTable table;	// Shared results of positions already searched (null if not used)
+	private Connect4Game board;		// This worker's copy of the board
+	private int horizon;			// How many levels to search down
+	private SearchAlgorithm algorithm;	// How to search the game tree
+	private int aspirationWindow;	// Half width of the window around the last iteration's value (0 for none)
+	private int firstDepth = 1;		// First depth of the iterative deepening after depth 0 (kept from search to search)
+	private long deadline;			// System.nanoTime() at which to stop searching (0 for no limit)
+	private volatile boolean stopped;	// Set by another thread to stop the search
+	private boolean aborted;		// True once the search has run out of time or been stopped
+	private long nodeCount;			// Number of moves made in the current search
+	private long leafCount;			// Positions evaluated statically in the current search
+	private long [] cutoffs = new long[MAX_PLY];	// Cutoffs at each ply in the current search
+	private long firstMoveCutoffs;	// Those made by the first move tried
+	private long tableProbes;		// Positions looked up in the transposition table
+	private long tableHits;			// Positions found there
+	private long tableCutoffs;		// Positions whose stored value ended their search
+	private int completedDepth;		// Deepest search completed
+	private Connect4Move result;	// Move found by the last search
+	private EndgameTablebase tablebase;	// Exact results of late positions (null if not used)
+	private Evaluator evaluator = new TableEvaluator();	// Scores positions where the search stops
+
+	// Move ordering: trying the best moves first lets alpha-beta cut off more of the tree
+	private int [][] moveLists = new int[MAX_PLY][Connect4State.COLS];	// Moves to try at each ply, best first
+	private int [][] moveScores = new int[MAX_PLY][Connect4State.COLS];	// Ordering score of each of those moves
+	private int [][] killers = new int[MAX_PLY][2];	// Last two moves at each ply that caused a cutoff
+	private int [][] history = new int[2][Connect4State.ROWS * Connect4State.COLS];	// Cutoffs by player and spot, weighted by depth
+
+	/**
+	 * Creates a worker
+	 * @param TranspositionTable table (shared with the other workers, or null)
+	 */
+	SearchWorker(TranspositionTable table) {
+		this.table = table;
+	}
+
+	/**
+	 * Sets the endgame tablebase, which is looked in before searching a late position
+	 * @param EndgameTablebase tablebase (null for none)
+	 */
+	void setTablebase(EndgameTablebase tablebase) {
+		this.tablebase = tablebase;
+	}
+
+	/**
+	 * Sets the static evaluation function
+	 * @param Evaluator evaluator
+	 */
+	void setEvaluator(Evaluator evaluator) {
+		this.evaluator = evaluator;
+	}
+
+	/**
+	 * Gets the worker ready to search a new position
+	 * @param Connect4Game board (copy of the position, which the worker makes moves on)
+	 * @param int horizon (how many levels to search down)
+	 * @param SearchAlgorithm algorithm
+	 * @param int aspirationWindow (0 for none)
+	 * @param long deadline (System.nanoTime() at which to stop, or 0 for no limit)
+	 */
+	void prepare(Connect4Game board, int horizon, SearchAlgorithm algorithm, int aspirationWindow, long deadline) {
+		this.board = board;
+		this.horizon = horizon;
+		this.algorithm = algorithm;
+		this.aspirationWindow = aspirationWindow;
+		this.deadline = deadline;
+		this.stopped = false;
+		this.aborted = false;
+		this.nodeCount = 0;
+		this.leafCount = 0;
+		Arrays.fill(cutoffs, 0);
+		this.firstMoveCutoffs = 0;
+		this.tableProbes = 0;
+		this.tableHits = 0;
+		this.tableCutoffs = 0;
+		this.completedDepth = 0;
+		this.result = null;
+		// Forget the killer moves and history of the last search, whose plies no longer line up
+		for (int [] killer : killers) {
+			Arrays.fill(killer, -1);
+		}
+		for (int [] playerHistory : history) {
+			Arrays.fill(playerHistory, 0);
+		}
+	}
+
+	/**
+	 * Searches straight to the horizon, with no time limit
+	 * @return the move chosen
+	 */
+	Connect4Move searchToHorizon() {
+		result = this.pickMove(board, horizon, -Integer.MAX_VALUE, Integer.MAX_VALUE);
+		completedDepth = horizon;
+		return result;
+	}
+
+	/**
+	 * Searches with iterative deepening until the horizon, the deadline or stop()
+	 * @return the move chosen
+	 */
+	Connect4Move searchIteratively() {
+		result = this.iterativeDeepening(board, firstDepth);
+		return result;
+	}
+
+	/**
+	 * Sets the first depth to search after depth 0 when searching iteratively.
+	 * Helper workers start at different depths so they do not all search the
+	 * same tree in the same order.
+	 * @param int depth
+	 */
+	void setFirstDepth(int depth) {
+		this.firstDepth = depth;
+	}
+
+	/**
+	 * Searches iteratively, for running on a helper thread
+	 */
+	public void run() {
+		this.searchIteratively();
+	}
+
+	/**
+	 * Stops the search (from another thread); it unwinds within a few thousand nodes
+	 */
+	void stop() {
+		this.stopped = true;
+	}
+
+	/**
+	 * Gets the number of moves made in the last search
+	 * @return long nodeCount
+	 */
+	long getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Adds the counts of the last search to a player's statistics
+	 * @param SearchStats stats
+	 */
+	void addStats(SearchStats stats) {
+		stats.add(nodeCount, leafCount, cutoffs, firstMoveCutoffs, tableProbes, tableHits, tableCutoffs);
+	}
+
+	/**
+	 * Follows the best moves stored in the transposition table from the root
+	 * of the last search (once it has ended), starting with the move it chose
+	 * @return int [] columns (just the move chosen if there is no table)
+	 */
+	int[] principalVariation() {
+		if (result == null || !board.isValidMove(result.move)) {
+			return new int[0];
+		}
+		int [] moves = new int[completedDepth + 1];
+		int count = 0;
+		int col = result.move;
+		// Play the line on a copy, since the board may be wanted again
+		Connect4Game line = new Connect4Game(board);
+		while (count < moves.length && line.isValidMove(col) && !line.gameIsOver()) {
+			moves[count++] = col;
+			line.makeMove(col);
+			if (table == null) {
+				break;
+			}
+			col = mirrorIf(TranspositionTable.move(table.probe(line.getCanonicalHash())), line.isMirrored());
+		}
+		return Arrays.copyOf(moves, count);
+	}
+
+	/**
+	 * Gets the move found by the last search (once it has ended)
+	 * @return Connect4Move result
+	 */
+	Connect4Move getResult() {
+		return result;
+	}
+
+	/**
+	 * Gets the deepest search that finished
+	 * @return int completedDepth
+	 */
+	int getCompletedDepth() {
+		return completedDepth;
+	}
+
+	/**
+	 * Builds the list of columns from the center out (for 7 columns: 3 2 4 1 5 0 6)
+	 * @return int [] columns
+	 */
+	private static int [] centerOrder() {
+		int [] order = new int[Connect4State.COLS];
+		for (int i = 0; i < Connect4State.COLS; i++) {
+			order[i] = Connect4State.COLS / 2 + (i % 2 == 1 ? -(i + 1) / 2 : i / 2);
+		}
+		return order;
+	}
+
+	/**
+	 * Uses game tree search with alpha-beta pruning to pick computer's move
+	 * low and high define the current range for the best move.
+	 * The current player has another move choice which will get him at least low,
+	 * and his opponent has another choice that will hold his losses to high.
+	 * 
+	 * @param state current state of the game (moves are made and taken back on it)
+	 * @param depth number of moves to look ahead in game tree search
+	 * @param low a value that the player can achieve by some other move
+	 * @param high a value that the opponent can force by a different line of play
+	 * @return the move chosen
+	 */
+	private Connect4Move pickMove (Connect4Game state, int depth, int low, int high) {
+		// A dummy move that will be replaced when a real move is evaluated, 
+		// so the column number is irrelevant.
+		Connect4Move bestMove = new Connect4Move(Integer.MIN_VALUE, 0);
+		// A late position in the endgame tablebase needs no search
+		if (tablebase != null && Connect4Position.SPOTS - state.getMoveCount() <= tablebase.getEmpties()) {
+			Connect4Position position = new Connect4Position(state);
+			int move = tablebase.getMove(position);
+			if (move >= 0) {
+				int score = tablebase.getScore(position.key());
+				bestMove.value = score == 0 ? 0 : Integer.signum(score) * KNOWN_WIN + score;
+				bestMove.move = move;
+				return bestMove;
+			}
+		}
+		// Start with the best move of the last search of this position, if there was one
+		int hashMove = -1;
+		if (table != null) {
+			hashMove = mirrorIf(TranspositionTable.move(table.probe(state.getCanonicalHash())), state.isMirrored());
+		}
+		int [] moves = moveLists[0];
+		int count = this.orderMoves(state, 0, hashMove);
+
+		// Run through possible moves, best first
+		for (int i = 0; bestMove.value < high && i < count; i++) {
+			int col = moves[i];
+			// Find the value of this move
+			int value = this.searchMove(state, col, depth, low, high, 0, i == 0);
+			// If time ran out, the caller throws this search away
+			if (aborted) {
+				break;
+			}
+			// If a new best move was found
+			if (value > bestMove.value)  {  
+				// Update the best move
+				bestMove.value = value;
+				bestMove.move = col;
+				// Update the low value
+				low = Math.max(low, value);
+			}
+		}
+		if (bestMove.value >= high && !aborted) {
+			this.countCutoff(0, bestMove.move == moves[0]);
+		}
+		// Return the best move
+		return bestMove;
+	}
+
+	/**
+	 * Uses iterative deepening to pick the computer's move: searches at depth 0, 1, 2, ...
+	 * up to the horizon (or the end of the game), each time starting from the last
+	 * value.  Stops if the deadline passes or the worker is stopped, and returns the
+	 * best move of the last finished search.
+	 * @param state current state of the game (moves are made and taken back on it)
+	 * @param firstDepth first depth to search after depth 0
+	 * @return the move chosen
+	 */
+	private Connect4Move iterativeDeepening (Connect4Game state, int firstDepth) {
+		// Looking further ahead than the number of empty spots cannot find anything new
+		int maxDepth = Math.min(horizon, Connect4State.ROWS * Connect4State.COLS - state.getMoveCount() - 1);
+		// Always finish the search at depth 0 (one move ahead), so there is a move to play
+		long limit = deadline;
+		deadline = 0;
+		Connect4Move bestMove = this.searchToDepth(state, 0, 0);
+		completedDepth = 0;
+		// Then look deeper until time runs out
+		deadline = limit;
+		for (int d = firstDepth; d <= maxDepth; d++) {
+			Connect4Move move = this.searchToDepth(state, d, bestMove.value);
+			// A search that was stopped part way through is thrown away
+			if (aborted) {
+				break;
+			}
+			bestMove = move;
+			completedDepth = d;
+		}
+		return bestMove;
+	}
+
+	/**
+	 * Searches to one depth with the chosen algorithm
+	 * @param state current state of the game (moves are made and taken back on it)
+	 * @param depth number of moves to look ahead in game tree search
+	 * @param guess value of the last, shallower search
+	 * @return the move chosen
+	 */
+	private Connect4Move searchToDepth (Connect4Game state, int depth, int guess) {
+		if (algorithm == SearchAlgorithm.MTDF) {
+			return this.mtdf(state, depth, guess);
+		}
+		if (aspirationWindow > 0 && depth > 0) {
+			int low = guess - aspirationWindow;
+			int high = guess + aspirationWindow;
+			Connect4Move move = this.pickMove(state, depth, low, high);
+			// Inside the window the value is exact; outside it, search again with the full window
+			if (aborted || (move.value > low && move.value < high)) {
+				return move;
+			}
+		}
+		return this.pickMove(state, depth, -Integer.MAX_VALUE, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * MTD(f): closes in on the value of the position with null window searches.
+	 * Each search shows the value is either below or at least its bound, which
+	 * becomes the new upper or lower limit, until the two limits meet.
+	 * @param state current state of the game (moves are made and taken back on it)
+	 * @param depth number of moves to look ahead in game tree search
+	 * @param guess first guess of the value
+	 * @return the move chosen
+	 */
+	private Connect4Move mtdf (Connect4Game state, int depth, int guess) {
+		int value = guess;
+		int lower = -Integer.MAX_VALUE;
+		int upper = Integer.MAX_VALUE;
+		// The move is taken from the last search that reached its bound,
+		// since that search proved the move is worth at least the final value
+		Connect4Move move = null;
+		Connect4Move bestMove = null;
+		while (lower < upper) {
+			int bound = (value == lower) ? value + 1 : value;
+			move = this.pickMove(state, depth, bound - 1, bound);
+			if (aborted) {
+				return move;
+			}
+			value = move.value;
+			if (value < bound) {
+				upper = value;
+			}
+			else {
+				lower = value;
+				bestMove = move;
+			}
+		}
+		return bestMove != null ? bestMove : move;
+	}
+
+	/**
+	 * Finds the value of the position below the root, for the player to move.
+	 * Same search as pickMove, but only the value is returned so that
+	 * no objects are created anywhere in the tree.
+	 * 
+	 * @param state current state of the game (moves are made and taken back on it)
+	 * @param depth number of moves to look ahead in game tree search
+	 * @param low a value that the player can achieve by some other move
+	 * @param high a value that the opponent can force by a different line of play
+	 * @param ply number of moves made since the root
+	 * @return the value of the best move
+	 */
+	private int alphaBeta (Connect4Game state, int depth, int low, int high, int ply) {
+		// Remember the window, to know what kind of bound the result is
+		int originalLow = low;
+		// A position and its mirror image share an entry, with moves stored the way
+		// round of the one with the smaller hash
+		long hash = state.getCanonicalHash();
+		boolean mirrored = state.isMirrored();
+		// If this position was already searched at least this deep, and the stored
+		// value settles the question for this window, there is no need to search again.
+		// Otherwise its best move is still the best guess of what to try first.
+		int hashMove = -1;
+		if (table != null) {
+			long entry = table.probe(hash);
+			tableProbes++;
+			if (entry != TranspositionTable.MISSING) {
+				tableHits++;
+			}
+			if (entry != TranspositionTable.MISSING && TranspositionTable.depth(entry) >= depth) {
+				int stored = TranspositionTable.value(entry);
+				int bound = TranspositionTable.bound(entry);
+				if (bound == TranspositionTable.EXACT
+						|| (bound == TranspositionTable.LOWER && stored >= high)
+						|| (bound == TranspositionTable.UPPER && stored <= low)) {
+					tableCutoffs++;
+					return stored;
+				}
+			}
+			hashMove = mirrorIf(TranspositionTable.move(entry), mirrored);
+		}
+
+		// Best value and move found so far (replaced as soon as a real move is evaluated)
+		int bestValue = Integer.MIN_VALUE;
+		int bestCol = -1;
+		int [] moves = moveLists[ply];
+		int count = this.orderMoves(state, ply, hashMove);
+
+		// Run through possible moves, best first
+		for (int i = 0; bestValue < high && i < count; i++) {
+			int col = moves[i];
+			// Find the value of this move
+			int value = this.searchMove(state, col, depth, low, high, ply, i == 0);
+			// If time ran out, the value is meaningless and must not be saved
+			if (aborted) {
+				return 0;
+			}
+			// If a new best move was found
+			if (value > bestValue)  {  
+				// Update the best value and move and the low value
+				bestValue = value;
+				bestCol = col;
+				low = Math.max(low, value);
+			}
+		}
+		// If a move was good enough to cut off the search, try it early next time
+		if (bestValue >= high) {
+			this.rememberCutoff(state, ply, bestCol, depth);
+			this.countCutoff(ply, bestCol == moves[0]);
+		}
+		// Save the result: it is only exact if it fell inside the window
+		if (table != null) {
+			int bound = TranspositionTable.EXACT;
+			if (bestValue <= originalLow) {
+				bound = TranspositionTable.UPPER;
+			}
+			else if (bestValue >= high) {
+				bound = TranspositionTable.LOWER;
+			}
+			table.store(hash, depth, bound, bestValue, mirrorIf(bestCol, mirrored));
+		}
+		// Return the best value
+		return bestValue;
+	}
+
+	/**
+	 * Counts a cutoff for the search statistics
+	 * @param int ply (where it happened)
+	 * @param boolean first (true if the first move tried made it)
+	 */
+	private void countCutoff (int ply, boolean first) {
+		cutoffs[ply]++;
+		if (first) {
+			firstMoveCutoffs++;
+		}
+	}
+
+	/**
+	 * Mirrors a move between a position and its mirror image
+	 * @param int col (or -1 for no move)
+	 * @param boolean mirrored (false to leave the move as it is)
+	 * @return int column COLS-1-col if mirrored, otherwise col (-1 stays -1)
+	 */
+	private static int mirrorIf(int col, boolean mirrored) {
+		return mirrored && col >= 0 ? Connect4State.COLS - 1 - col : col;
+	}
+
+	/**
+	 * Puts the legal moves of a position in the order to try them: the transposition
+	 * table's move, then the killer moves of this ply, then the rest by history score,
+	 * with ties going to the column closer to the center.
+	 * @param state current state of the game
+	 * @param ply number of moves made since the root (moves go in moveLists[ply])
+	 * @param hashMove best move stored for the position, or -1
+	 * @return the number of legal moves
+	 */
+	private int orderMoves (Connect4Game state, int ply, int hashMove) {
+		int [] moves = moveLists[ply];
+		int [] scores = moveScores[ply];
+		int [] playerHistory = history[state.getPlayerNum()];
+		int count = 0;
+		for (int col : CENTER_ORDER) {
+			if (state.isValidMove(col)) {
+				// Score the move
+				int score;
+				if (col == hashMove) {
+					score = HASH_MOVE_SCORE;
+				}
+				else if (col == killers[ply][0]) {
+					score = KILLER_SCORE;
+				}
+				else if (col == killers[ply][1]) {
+					score = KILLER_SCORE - 1;
+				}
+				else {
+					score = playerHistory[state.getColumnHeight(col) * Connect4State.COLS + col];
+				}
+				// Insert it after every move with at least as high a score
+				int i = count++;
+				while (i > 0 && scores[i - 1] < score) {
+					moves[i] = moves[i - 1];
+					scores[i] = scores[i - 1];
+					i--;
+				}
+				moves[i] = col;
+				scores[i] = score;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Records a move that caused a cutoff as a killer move for its ply and adds
+	 * to its history score (more for deeper searches, which save more work)
+	 * @param state current state of the game (before the move)
+	 * @param ply number of moves made since the root
+	 * @param col the move that caused the cutoff
+	 * @param depth number of moves looked ahead from this position
+	 */
+	private void rememberCutoff (Connect4Game state, int ply, int col, int depth) {
+		if (killers[ply][0] != col) {
+			killers[ply][1] = killers[ply][0];
+			killers[ply][0] = col;
+		}
+		int [] playerHistory = history[state.getPlayerNum()];
+		int spot = state.getColumnHeight(col) * Connect4State.COLS + col;
+		playerHistory[spot] += (depth + 1) * (depth + 1);
+		// Halve every score if one gets too big, keeping them below the killer scores
+		if (playerHistory[spot] >= HISTORY_LIMIT) {
+			for (int [] scores : history) {
+				for (int i = 0; i < scores.length; i++) {
+					scores[i] /= 2;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the value of a move.  With principal variation search, every move but
+	 * the first is searched with a null window just above low, which only shows
+	 * whether the move is better than the best so far; only if it is is it searched
+	 * again with the full window to find its value.
+	 * @param state current state of the game
+	 * @param col the (legal) column to drop a checker into
+	 * @param depth number of moves to look ahead in game tree search
+	 * @param low a value that the player can achieve by some other move
+	 * @param high a value that the opponent can force by a different line of play
+	 * @param ply number of moves made since the root
+	 * @param first true if this is the first move tried in the position
+	 * @return the value of the move
+	 */
+	private int searchMove (Connect4Game state, int col, int depth, int low, int high, int ply, boolean first) {
+		if (algorithm != SearchAlgorithm.PVS || first || depth == 0 || high - low <= 1) {
+			return this.moveValue(state, col, depth, low, high, ply);
+		}
+		int value = this.moveValue(state, col, depth, low, low + 1, ply);
+		if (value > low && value < high && !aborted) {
+			value = this.moveValue(state, col, depth, low, high, ply);
+		}
+		return value;
+	}
+
+	/**
+	 * Makes a move, finds its value for the player making it and takes it back
+	 * @param state current state of the game
+	 * @param col the (legal) column to drop a checker into
+	 * @param depth number of moves to look ahead in game tree search
+	 * @param low a value that the player can achieve by some other move
+	 * @param high a value that the opponent can force by a different line of play
+	 * @param ply number of moves made since the root
+	 * @return the value of the move
+	 */
+	private int moveValue (Connect4Game state, int col, int depth, int low, int high, int ply) {
+		int value;
+		// Make the move
+		state.makeMove(col);
+		nodeCount++;
+		// Every so often, see if the time for this move has run out or the worker was stopped
+		if ((nodeCount & 1023) == 0 && (stopped || (deadline != 0 && System.nanoTime() >= deadline))) {
+			aborted = true;
+		}
+		// Find the value of this board by evaluating if game over or looking ahead if not
+		if (state.gameIsOver()) {
+			// Evaluate the true score of the board the move was made from, and multiply 
+			// it by a huge constant so that the program will choose a sure win over a 
+			// potentially larger speculative win and a possible loss over a sure loss.  
+			state.undoMove(col);
+			leafCount++;
+			return ComputerConnect4Player.END_MULTIPLIER * evaluator.evaluate(state, state.getPlayerNum());
+		}
+		// If the player changed but there depth is non-zero
+		else if (depth > 0) {
+			// Get the next move recursively
+			// Good for opponent is bad for me 
+			value = -this.alphaBeta(state, depth - 1, -high, -low, ply + 1);
+		}
+		// Otherwise, the depth is exhausted, so estimate who is winning 
+		// with the static evaluation method, for the player who made the move
+		else {
+			leafCount++;
+			value = evaluator.evaluate(state, 1 - state.getPlayerNum());
+		}
+		// Take the move back
+		state.undoMove(col);
+		return value;
+	}
+} // This brace } ends the SearchWorker Class
@@ -0,0 +1,578 @@
+package connect4;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays many games between two engines (see EngineConfig) with no one
+ * watching, on a fixed pool of worker threads, for testing whether a change
+ * to an engine makes it stronger or faster.  Games are played in pairs from
+ * the same opening, each engine moving first in one of them, so neither gets
+ * the better side of an opening more often.  Openings are a number of random
+ * moves (only sound ones, where the opening book can tell) or lines read from
+ * a file.  Each worker keeps its own pair of players from game to game.
+ *
+ * Each game is written to the results file as it finishes (so the order of
+ * games depends on the threads), and the totals are written at the end.
+ * Games are also added to a game record file (see GameRecordWriter) if one
+ * is set, which main does when the connect4.record property names a file.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class SelfPlay {
+	// Number of random moves in each opening if not given
+	public static final int DEFAULT_OPENING_PLIES = 4;
+
+	// The view of every game, which shows nothing
+	private static final Connect4View VIEW = new NullConnect4View();
+
+	/**
+	 * The outcome of one game, and what each engine spent on it
+	 */
+	public static class GameResult {
+		public final int number;		// Game number (from 0); games 2k and 2k+1 share an opening
+		public final String opening;	// Moves of the opening, as column digits
+		public final int firstEngine;	// Engine that moved first (0 or 1)
+		public final int winner;		// Engine that won (0 or 1), or -1 for a draw
+		public final String moves;		// Every move of the game (opening included), as column digits
+		public final int [] moveCounts = new int[2];	// Moves each engine chose
+		public final long [] nanos = new long[2];		// Time each engine took to choose them
+		public final long [] nodes = new long[2];		// Positions each engine searched to choose them
+		public final long [] moveNanos;					// Time taken for each move (0 for the opening's)
+
+		/**
+		 * Creates the result of a game
+		 * @param int number
+		 * @param String opening
+		 * @param int firstEngine
+		 * @param int winner
+		 * @param String moves
+		 * @param long [] moveNanos
+		 */
+		GameResult(int number, String opening, int firstEngine, int winner, String moves, long [] moveNanos) {
+			this.number = number;
+			this.opening = opening;
+			this.firstEngine = firstEngine;
+			this.winner = winner;
+			this.moves = moves;
+			this.moveNanos = moveNanos;
+		}
+
+		/**
+		 * Gets the result as a line of the results file
+		 * @return String (tab-separated, as described by HEADER)
+		 */
+		public String toString() {
+			return number + "\t" + (opening.isEmpty() ? "-" : opening) + "\t" + firstEngine + "\t"
+					+ (winner < 0 ? "draw" : String.valueOf(winner)) + "\t" + moves
+					+ "\t" + moveCounts[0] + "\t" + nanos[0] / 1000 + "\t" + nodes[0]
+					+ "\t" + moveCounts[1] + "\t" + nanos[1] / 1000 + "\t" + nodes[1];
+		}
+	}
+
+	// First line of the results file, naming the columns of each game's line
+	public static final String HEADER = "#game\topening\tfirst\twinner\tmoves\tmovesA\tmicrosA\tnodesA\tmovesB\tmicrosB\tnodesB";
+
+	/**
+	 * Totals over the games played so far, from engine A's (engine 0's) side
+	 */
+	public static class Summary {
+		private int games;							// Games played
+		private int wins;							// Games engine A won
+		private int losses;							// Games engine B won
+		private final int [] moveCounts = new int[2];	// Moves each engine chose
+		private final long [] nanos = new long[2];		// Time each engine took to choose them
+		private final long [] nodes = new long[2];		// Positions each engine searched
+
+		/**
+		 * Adds a game to the totals
+		 * @param GameResult result
+		 */
+		void add(GameResult result) {
+			games++;
+			if (result.winner == 0) {
+				wins++;
+			}
+			else if (result.winner == 1) {
+				losses++;
+			}
+			for (int engine = 0; engine < 2; engine++) {
+				moveCounts[engine] += result.moveCounts[engine];
+				nanos[engine] += result.nanos[engine];
+				nodes[engine] += result.nodes[engine];
+			}
+		}
+
+		/**
+		 * Gets the number of games played
+		 * @return int games
+		 */
+		public int getGames() {
+			return games;
+		}
+
+		/**
+		 * Gets the number of games engine A won
+		 * @return int wins
+		 */
+		public int getWins() {
+			return wins;
+		}
+
+		/**
+		 * Gets the number of games drawn
+		 * @return int draws
+		 */
+		public int getDraws() {
+			return games - wins - losses;
+		}
+
+		/**
+		 * Gets the number of games engine B won
+		 * @return int losses
+		 */
+		public int getLosses() {
+			return losses;
+		}
+
+		/**
+		 * Gets an engine's average time per move
+		 * @param int engine (0 or 1)
+		 * @return double milliseconds
+		 */
+		public double getAverageMoveMillis(int engine) {
+			return moveCounts[engine] == 0 ? 0 : nanos[engine] / 1e6 / moveCounts[engine];
+		}
+
+		/**
+		 * Gets how fast an engine searched
+		 * @param int engine (0 or 1)
+		 * @return double positions (or Monte Carlo games) per second
+		 */
+		public double getNodesPerSecond(int engine) {
+			return nanos[engine] == 0 ? 0 : nodes[engine] * 1e9 / nanos[engine];
+		}
+
+		/**
+		 * Gets the totals as text
+		 * @return String
+		 */
+		public String toString() {
+			StringBuilder text = new StringBuilder();
+			text.append(String.format("%d games: A won %d, drew %d, lost %d (%.1f%%)%n",
+					games, wins, getDraws(), losses, games == 0 ? 0 : 100.0 * (wins + 0.5 * getDraws()) / games));
+			for (int engine = 0; engine < 2; engine++) {
+				text.append(String.format("%c: %.2f ms per move, %.0f nodes per second%n",
+						(char) ('A' + engine), getAverageMoveMillis(engine), getNodesPerSecond(engine)));
+			}
+			return text.toString();
+		}
+	}
+
+	/**
+	 * Told about each game as it finishes, and can stop the match early
+	 */
+	public interface Listener {
+		/**
+		 * Called once for each game, one game at a time
+		 * @param GameResult result (of the game just finished)
+		 * @param Summary summary (totals including that game)
+		 * @return boolean (true to keep playing, false to stop the match)
+		 */
+		boolean gameFinished(GameResult result, Summary summary);
+	}
+
+	// Instance variables
+	private final EngineConfig [] engines;	// Engine A and engine B
+	private int workers = 1;				// Games played at once
+	private int openingPlies = DEFAULT_OPENING_PLIES;	// Random moves in each opening
+	private List<String> openings;			// Openings to use in turn instead (null for random ones)
+	private long seed = 1;					// Seed of the random openings
+	private OpeningBook book;				// Opening book (null if none)
+	private EndgameTablebase tablebase;		// Endgame tablebase (null if none)
+	private Listener listener;				// Told about each game (null for none)
+	private GameRecordWriter records;		// Game record file each game is added to (null for none)
+	private volatile boolean stopped;		// Set once the listener has stopped the match
+	private Summary summary;				// Totals of the match being played
+	private PrintWriter out;				// Results file of the match being played (null for none)
+
+	/**
+	 * Creates a match between two engines
+	 * @param EngineConfig a
+	 * @param EngineConfig b
+	 */
+	public SelfPlay(EngineConfig a, EngineConfig b) {
+		this.engines = new EngineConfig[] {a, b};
+	}
+
+	/**
+	 * Sets the number of games to play at once, each on its own thread
+	 * @param int workers (at least 1)
+	 */
+	public void setWorkers(int workers) {
+		this.workers = Math.max(1, workers);
+	}
+
+	/**
+	 * Sets the number of random moves each pair of games starts with
+	 * @param int plies
+	 */
+	public void setOpeningPlies(int plies) {
+		this.openingPlies = plies;
+	}
+
+	/**
+	 * Sets the openings to use in turn (one per pair of games) instead of random ones
+	 * @param List<String> openings (moves as column digits, at least one; null for random openings)
+	 */
+	public void setOpenings(List<String> openings) {
+		this.openings = openings;
+	}
+
+	/**
+	 * Sets the seed of the random openings, so a match can be played again
+	 * @param long seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Sets the opening book, for the engines and for picking sound random openings
+	 * @param OpeningBook book (null for none)
+	 */
+	public void setOpeningBook(OpeningBook book) {
+		this.book = book;
+	}
+
+	/**
+	 * Sets the endgame tablebase, for the engines
+	 * @param EndgameTablebase tablebase (null for none)
+	 */
+	public void setEndgameTablebase(EndgameTablebase tablebase) {
+		this.tablebase = tablebase;
+	}
+
+	/**
+	 * Sets what to tell about each game as it finishes
+	 * @param Listener listener (null for nothing)
+	 */
+	public void setListener(Listener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Sets a game record file to add each game to as it finishes, with the
+	 * engines' specs as the players' names
+	 * @param GameRecordWriter records (null for none)
+	 */
+	public void setRecordWriter(GameRecordWriter records) {
+		this.records = records;
+	}
+
+	/**
+	 * Plays the match
+	 * @param int games (played in pairs, so an odd number leaves the last opening played once)
+	 * @param PrintWriter out (where to write each game as it finishes and the totals, or null)
+	 * @return Summary (totals of the games played, which is fewer than asked if the listener stopped the match)
+	 */
+	public Summary run(int games, PrintWriter out) {
+		this.summary = new Summary();
+		this.out = out;
+		this.stopped = false;
+		if (out != null) {
+			out.println("# A: " + engines[0]);
+			out.println("# B: " + engines[1]);
+			out.println(HEADER);
+			out.flush();
+		}
+		// Pick every opening before starting, so they do not depend on the threads
+		String [] pairOpenings = new String[(games + 1) / 2];
+		Random random = new Random(seed);
+		for (int i = 0; i < pairOpenings.length; i++) {
+			pairOpenings[i] = openings != null ? openings.get(i % openings.size())
+					: SelfPlay.randomOpening(random, openingPlies, book);
+		}
+		// Each worker thread keeps its own players from game to game
+		ThreadLocal<Player []> players = ThreadLocal.withInitial(() -> new Player[] {
+				engines[0].createPlayer("A", book, tablebase),
+				engines[1].createPlayer("B", book, tablebase) });
+		ExecutorService pool = Executors.newFixedThreadPool(workers);
+		List<Future<?>> results = new ArrayList<Future<?>>();
+		for (int i = 0; i < games; i++) {
+			int number = i;
+			results.add(pool.submit(() -> {
+				if (!stopped) {
+					this.record(SelfPlay.play(number, players.get(), pairOpenings[number / 2], number % 2));
+				}
+			}));
+		}
+		pool.shutdown();
+		try {
+			for (Future<?> result : results) {
+				result.get();
+			}
+			pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		}
+		catch (InterruptedException ex) {
+			pool.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException ex) {
+			pool.shutdownNow();
+			throw new IllegalStateException("A game could not be played", ex.getCause());
+		}
+		if (out != null) {
+			for (String line : summary.toString().split("\n")) {
+				out.println("# " + line);
+			}
+			out.flush();
+		}
+		return summary;
+	}
+
+	/**
+	 * Adds a finished game to the totals, writes it out and tells the listener
+	 * (one game at a time).  Games that finish after the listener stopped the
+	 * match are left out.
+	 * @param GameResult result
+	 */
+	private synchronized void record(GameResult result) {
+		if (stopped) {
+			return;
+		}
+		summary.add(result);
+		if (out != null) {
+			out.println(result);
+			out.flush();
+		}
+		if (records != null) {
+			try {
+				records.write(this.gameRecord(result));
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+		if (listener != null && !listener.gameFinished(result, summary)) {
+			stopped = true;
+		}
+	}
+
+	/**
+	 * Makes the record of a game for the game record file
+	 * @param GameResult result
+	 * @return GameRecord (the engine that moved first is the first player)
+	 */
+	private GameRecord gameRecord(GameResult result) {
+		EngineConfig first = engines[result.firstEngine];
+		EngineConfig second = engines[1 - result.firstEngine];
+		byte [] moves = new byte[result.moves.length()];
+		long [] moveMicros = new long[moves.length];
+		for (int ply = 0; ply < moves.length; ply++) {
+			moves[ply] = (byte) (result.moves.charAt(ply) - '0');
+			moveMicros[ply] = result.moveNanos[ply] / 1000;
+		}
+		int outcome = result.winner < 0 ? GameRecord.DRAW
+				: result.winner == result.firstEngine ? GameRecord.FIRST_WINS : GameRecord.SECOND_WINS;
+		return new GameRecord(new String[] {first.toString(), second.toString()},
+				new int[] {first.getDepth(), second.getDepth()}, outcome, moves, moveMicros);
+	}
+
+	/**
+	 * Plays one game
+	 * @param int number (game number)
+	 * @param Player [] engines (engine A's player and engine B's player)
+	 * @param String opening (first moves, as column digits)
+	 * @param int firstEngine (engine that moves first, 0 or 1)
+	 * @return GameResult
+	 * @throws IllegalStateException if an engine chooses a full column, or the opening ends the game
+	 */
+	public static GameResult play(int number, Player [] engines, String opening, int firstEngine) {
+		// Seat the engine moving first as player 0
+		Player [] seats = firstEngine == 0 ? engines : new Player[] {engines[1], engines[0]};
+		Connect4Game state = new Connect4Game(0, seats, VIEW);
+		StringBuilder moves = new StringBuilder();
+		for (int i = 0; i < opening.length(); i++) {
+			int move = opening.charAt(i) - '0';
+			if (state.gameIsOver() || !state.isValidMove(move)) {
+				throw new IllegalStateException("Invalid opening " + opening);
+			}
+			state.makeMove(move);
+			moves.append(move);
+		}
+		if (state.gameIsOver()) {
+			throw new IllegalStateException("Opening " + opening + " ends the game");
+		}
+		long [] nanos = new long[2];
+		long [] nodes = new long[2];
+		int [] moveCounts = new int[2];
+		long [] moveNanos = new long[Connect4State.ROWS * Connect4State.COLS];
+		while (!state.gameIsOver()) {
+			int engine = state.getPlayerNum() ^ firstEngine;
+			Player player = engines[engine];
+			long start = System.nanoTime();
+			int move = player.getMove(state, VIEW);
+			moveNanos[moves.length()] = System.nanoTime() - start;
+			nanos[engine] += moveNanos[moves.length()];
+			nodes[engine] += EngineConfig.nodeCount(player);
+			moveCounts[engine]++;
+			if (!state.isValidMove(move)) {
+				throw new IllegalStateException(player.getName() + " chose full column " + move + " after " + moves);
+			}
+			state.makeMove(move);
+			moves.append(move);
+		}
+		for (Player player : engines) {
+			if (player instanceof ComputerConnect4Player) {
+				((ComputerConnect4Player) player).stopPondering();
+			}
+		}
+		int winner = state.getWinner() == Connect4Game.NO_WINNER ? -1 : state.getWinner() ^ firstEngine;
+		GameResult result = new GameResult(number, opening, firstEngine, winner, moves.toString(),
+				Arrays.copyOf(moveNanos, moves.length()));
+		for (int engine = 0; engine < 2; engine++) {
+			result.moveCounts[engine] = moveCounts[engine];
+			result.nanos[engine] = nanos[engine];
+			result.nodes[engine] = nodes[engine];
+		}
+		return result;
+	}
+
+	/**
+	 * Picks random opening moves that neither win nor let the opponent win at
+	 * once.  Where the opening book knows the position, only moves that keep
+	 * the position's result (win, draw or loss with perfect play) are picked,
+	 * so neither side starts out with a blunder.
+	 * @param Random random
+	 * @param int plies (number of moves)
+	 * @param OpeningBook book (null for none)
+	 * @return String moves (as column digits)
+	 */
+	public static String randomOpening(Random random, int plies, OpeningBook book) {
+		Connect4Position position = new Connect4Position();
+		StringBuilder moves = new StringBuilder();
+		int [] candidates = new int[Connect4State.COLS];
+		int [] values = new int[Connect4State.COLS];
+		while (moves.length() < plies) {
+			int count = 0;
+			int best = Integer.MIN_VALUE;
+			for (int col = 0; col < Connect4State.COLS; col++) {
+				if (!position.canPlay(col) || position.isWinningMove(col)) {
+					continue;
+				}
+				Connect4Position next = new Connect4Position(position);
+				next.play(col);
+				if (next.getMoves() == Connect4Position.SPOTS || next.canWinNext()) {
+					continue;
+				}
+				int score = book == null || next.getMoves() > book.getPlies() ? OpeningBook.MISSING : book.getScore(next.key());
+				candidates[count] = col;
+				values[count] = score == OpeningBook.MISSING ? Integer.MIN_VALUE : Integer.signum(-score);
+				best = Math.max(best, values[count]);
+				count++;
+			}
+			// Every move loses at once, so start again (which hardly ever happens)
+			if (count == 0) {
+				position = new Connect4Position();
+				moves.setLength(0);
+				continue;
+			}
+			// Keep the moves as good as the best, if the book knows them
+			int kept = 0;
+			for (int i = 0; i < count; i++) {
+				if (values[i] == best) {
+					candidates[kept++] = candidates[i];
+				}
+			}
+			int move = candidates[random.nextInt(kept)];
+			position.play(move);
+			moves.append(move);
+		}
+		return moves.toString();
+	}
+
+	/**
+	 * Plays a match and writes the results to a file
+	 * @param String [] args (engine A, engine B, number of games, results file,
+	 *   and optionally the number of workers, the openings (a number of random
+	 *   moves, or a file with one line of column digits per opening) and the seed)
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 4) {
+			System.err.println("Usage: java connect4.SelfPlay <engine A> <engine B> <games> <results file> [workers] [opening plies | openings file] [seed]");
+			System.err.println("Engines are given as, for example, computer:depth=8 or mcts:iterations=20000 (see EngineConfig)");
+			System.exit(1);
+		}
+		SelfPlay match = new SelfPlay(EngineConfig.parse(args[0]), EngineConfig.parse(args[1]));
+		match.configure(args, 4);
+		int games = Integer.parseInt(args[2]);
+		PrintWriter out = new PrintWriter(new FileWriter(args[3]));
+		GameRecordWriter records = Connect4.RECORD_FILE == null ? null : new GameRecordWriter(new File(Connect4.RECORD_FILE));
+		match.setRecordWriter(records);
+		try {
+			long start = System.nanoTime();
+			Summary summary = match.run(games, out);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.print(summary);
+			System.out.printf("%.1f s, %.1f games per second%n", seconds, summary.getGames() / seconds);
+		}
+		finally {
+			out.close();
+			if (records != null) {
+				records.close();
+			}
+		}
+	}
+
+	/**
+	 * Applies the optional command line arguments that follow the ones naming
+	 * the match: the number of workers, the openings and the seed, and opens
+	 * the book and tablebase files if they exist (see Connect4.BOOK_FILE)
+	 * @param String [] args
+	 * @param int first (index of the number of workers)
+	 * @throws IOException if the openings file cannot be read or has no openings
+	 */
+	void configure(String[] args, int first) throws IOException {
+		if (args.length > first) {
+			this.setWorkers(Integer.parseInt(args[first]));
+		}
+		if (args.length > first + 1) {
+			if (args[first + 1].matches("\\d+")) {
+				this.setOpeningPlies(Integer.parseInt(args[first + 1]));
+			}
+			else {
+				List<String> lines = new ArrayList<String>();
+				for (String line : Files.readAllLines(new File(args[first + 1]).toPath())) {
+					if (!line.trim().isEmpty()) {
+						lines.add(line.trim());
+					}
+				}
+				if (lines.isEmpty()) {
+					throw new IOException("No openings in " + args[first + 1]);
+				}
+				this.setOpenings(lines);
+			}
+		}
+		if (args.length > first + 2) {
+			this.setSeed(Long.parseLong(args[first + 2]));
+		}
+		this.setOpeningBook(Connect4.openingBook(VIEW));
+		this.setEndgameTablebase(Connect4.endgameTablebase(VIEW));
+	}
+} // This brace } ends the SelfPlay Class
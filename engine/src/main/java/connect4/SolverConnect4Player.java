@@ -0,0 +1,84 @@
+package connect4;
+
+/**
+ * Implements a computer player that plays perfectly: it solves the game from
+ * the current position (see Connect4Solver) and plays a move that keeps the
+ * best result possible, winning as fast as it can or losing as slowly as it
+ * can.  Positions early in the game take a long time to solve without an
+ * opening book.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class SolverConnect4Player extends Player {
+	// Private instance variables
+	private final Connect4Solver solver;	// Finds the exact score of each move
+	private int lastScore;					// Score of the last move chosen, for the player who made it
+
+	/**
+	 * Constructor to set name, with a solver table of the default size
+	 * @param String name
+	 */
+	public SolverConnect4Player(String name) {
+		this(name, Connect4Solver.DEFAULT_TABLE_MEGABYTES);
+	}
+
+	/**
+	 * Constructor to set name and the memory for the solver's table
+	 * @param String name
+	 * @param int tableMegabytes
+	 */
+	public SolverConnect4Player(String name, int tableMegabytes) {
+		super(name);
+		solver = new Connect4Solver(tableMegabytes);
+	}
+
+	/**
+	 * Sets the opening book to look positions near the start of the game up in
+	 * @param OpeningBook book (null for none)
+	 */
+	public void setOpeningBook(OpeningBook book) {
+		solver.setOpeningBook(book);
+	}
+
+	/**
+	 * Returns and reports the move with the best exact score
+	 * @return int (column of the move chosen)
+	 */
+	public int getMove(Connect4State state, Connect4View view) {
+		Connect4Position position = new Connect4Position((Connect4Game) state);
+		solver.resetNodeCount();
+		OpeningBook book = solver.getOpeningBook();
+		int move = book == null ? -1 : book.getMove(position);
+		if (move >= 0) {
+			// The book holds the best move and the position's score
+			lastScore = book.getScore(position.key());
+		}
+		else {
+			int[] scores = solver.analyze(position);
+			move = Connect4Solver.bestMove(scores);
+			lastScore = scores[move];
+		}
+		// Report the move chosen
+		view.reportMove(move, state.getPlayerToMove().getName());
+		// Return move
+		return move;
+	}
+
+	/**
+	 * Gets the exact score of the last move chosen: positive if it wins, 0 if
+	 * it draws and negative if it loses (see Connect4Solver)
+	 * @return int lastScore
+	 */
+	public int getLastScore() {
+		return lastScore;
+	}
+
+	/**
+	 * Gets the number of positions searched for the last move
+	 * @return long nodeCount
+	 */
+	public long getNodeCount() {
+		return solver.getNodeCount();
+	}
+} // This brace } ends the SolverConnect4Player Class
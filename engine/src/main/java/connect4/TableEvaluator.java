@@ -0,0 +1,135 @@
+package connect4;
+
+/**
+ * The default evaluation.  It scores each possible 4 in a row with one
+ * lookup.  Each of the line's 4 cells is one of four things (the player's
+ * checker, the opponent's, an empty spot a checker can be dropped into
+ * directly, or another empty spot), coded in 2 bits: whether it is the
+ * player's or playable, and whether it is the opponent's or playable.  The
+ * 8 bits of a line index a table of the score of every pattern, worked out
+ * once from the same rules as LegacyEvaluator, so scoring a line takes no
+ * tests at all, and the opponent's score is the same table with the two
+ * halves of the index swapped.
+ *
+ * Connect4Game keeps each player's total of these line scores up to date as
+ * moves are made and taken back (see Connect4Game.getScore), rescoring only
+ * the lines a move touches, so evaluating a position just reads that total.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class TableEvaluator implements Evaluator {
+	// Cells in a line, and so bits of each half of a pattern
+	private static final int CELLS = 4;
+
+	// Score of every pattern of a line, indexed by the player's half | the opponent's half << 4
+	private static final int [] SCORES = scores();
+
+	// Bit (see Connect4Game) of the first cell of every line, and the step to the next cell
+	private static final int [] LINE_START = new int[NInARow.FOUR_IN_A_ROW.getLineCount()];
+	private static final int [] LINE_STEP = new int[NInARow.FOUR_IN_A_ROW.getLineCount()];
+	static {
+		NInARow lines = NInARow.FOUR_IN_A_ROW;
+		for (int line = 0; line < lines.getLineCount(); line++) {
+			LINE_START[line] = Long.numberOfTrailingZeros(lines.getCellMask(line, 0));
+			LINE_STEP[line] = Long.numberOfTrailingZeros(lines.getCellMask(line, 1)) - LINE_START[line];
+		}
+	}
+
+	/**
+	 * Reads the total kept by the game state
+	 * @param Connect4Game state
+	 * @param int playerNum (player to score the board for)
+	 * @return int (score of board for player)
+	 */
+	public int evaluate(Connect4Game state, int playerNum) {
+		return state.getScore(playerNum);
+	}
+
+	/**
+	 * Gets one half of a line's pattern: which of its cells are set in a bitboard
+	 * @param long board (a player's checkers together with the playable spots)
+	 * @param int line (number of the line in NInARow.FOUR_IN_A_ROW)
+	 * @return int (bit i set if the line's cell i is set)
+	 */
+	static int pattern(long board, int line) {
+		int step = LINE_STEP[line];
+		long cells = board >>> LINE_START[line];
+		return (int) ((cells & 1) | ((cells >>> (step - 1)) & 2)
+				| ((cells >>> (2 * step - 2)) & 4) | ((cells >>> (3 * step - 3)) & 8));
+	}
+
+	/**
+	 * Scores a line for a player from the two halves of its pattern
+	 * @param int mine (pattern of the player's checkers and the playable spots)
+	 * @param int theirs (pattern of the opponent's checkers and the playable spots)
+	 * @return int (score of the line for the player)
+	 */
+	static int lineScore(int mine, int theirs) {
+		return SCORES[mine | theirs << CELLS];
+	}
+
+	/**
+	 * Scores a whole board for a player from scratch (what Connect4Game.getScore
+	 * keeps up to date)
+	 * @param long mine (bitboard of the player's checkers)
+	 * @param long theirs (bitboard of the opponent's checkers)
+	 * @return int (score of the board for the player)
+	 */
+	static int boardScore(long mine, long theirs) {
+		long playable = ((mine | theirs) + Connect4Game.BOTTOM_MASK) & Connect4Game.BOARD_MASK;
+		int score = 0;
+		for (int line = 0; line < LINE_START.length; line++) {
+			score += SCORES[pattern(mine | playable, line) | pattern(theirs | playable, line) << CELLS];
+		}
+		return score;
+	}
+
+	/**
+	 * Works out the score of every pattern a line can have, following the rules
+	 * of LegacyEvaluator: any of the opponent's checkers makes the line worth
+	 * nothing; 3, 2 (next to each other) and 1 of the player's checkers score
+	 * THREE_VAL, TWO_VAL and ONE_VAL, plus SPLIT_MULTIPLIER times as much again
+	 * if every empty spot can be dropped into directly; an empty line scores ZERO_VAL
+	 * @return int [] scores
+	 */
+	private static int [] scores() {
+		int [] scores = new int[1 << (2 * CELLS)];
+		for (int index = 0; index < scores.length; index++) {
+			// Cells set in both halves are playable; in one half, hold that side's checker
+			int playable = index & (index >>> CELLS) & 0xF;
+			int mine = index & ~playable & 0xF;
+			int theirs = (index >>> CELLS) & ~playable & 0xF;
+			if (theirs != 0) {
+				continue;
+			}
+			int empty = ~mine & 0xF;
+			boolean split = (empty & ~playable) == 0;
+			int value = 0;
+			switch (Integer.bitCount(mine)) {
+			case 0:
+				value = ComputerConnect4Player.ZERO_VAL;
+				break;
+			case 1:
+				value = ComputerConnect4Player.ONE_VAL;
+				break;
+			// Two in a rows only count when the two checkers are next to each other
+			case 2:
+				value = (mine == 0x3 || mine == 0x6 || mine == 0xC) ? ComputerConnect4Player.TWO_VAL : 0;
+				break;
+			case 3:
+				value = ComputerConnect4Player.THREE_VAL;
+				break;
+			// A completed 4 in a row ends the game rather than being scored
+			default:
+				break;
+			}
+			// Zero in a rows never get the multiplier
+			if (split && mine != 0) {
+				value += value * ComputerConnect4Player.SPLIT_MULTIPLIER;
+			}
+			scores[index] = value;
+		}
+		return scores;
+	}
+} // This brace } ends the TableEvaluator Class
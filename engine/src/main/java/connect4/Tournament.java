@@ -0,0 +1,260 @@
+package connect4;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.HashMap;
+
+/**
+ * Plays a match between two engines (see SelfPlay) until a sequential
+ * probability ratio test decides whether engine A is stronger than engine B,
+ * instead of playing a fixed number of games.  The test weighs the hypothesis
+ * that A is elo0 Elo stronger (H0, usually 0) against the hypothesis that it
+ * is elo1 stronger (H1), and stops as soon as the games played are evidence
+ * enough for one of them, with error rates alpha and beta, so a clear
+ * difference is settled in a fraction of the games a fixed match would need.
+ *
+ * The two games of a pair share an opening, so their results are related.
+ * The statistics count each pair as one result (0, 1/4, 1/2, 3/4 or 1 of the
+ * points to A), which takes that into account.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class Tournament implements SelfPlay.Listener {
+	// Hypotheses and error rates used if none are given
+	public static final double DEFAULT_ELO0 = 0;
+	public static final double DEFAULT_ELO1 = 10;
+	public static final double DEFAULT_ALPHA = 0.05;
+	public static final double DEFAULT_BETA = 0.05;
+
+	// Outcome of the test
+	public enum Decision { UNDECIDED, H0, H1 }
+
+	// Instance variables
+	private final double elo0;		// Elo difference of the null hypothesis
+	private final double elo1;		// Elo difference of the alternative hypothesis
+	private final double lowerBound;	// Accept H0 once the log-likelihood ratio falls to this
+	private final double upperBound;	// Accept H1 once it rises to this
+	private final int [] pairs = new int[5];	// Pairs in which A scored 0, 1/2, 1, 3/2 and 2 points
+	private final HashMap<Integer, SelfPlay.GameResult> waiting = new HashMap<Integer, SelfPlay.GameResult>();	// Games whose partner has not finished, by pair
+	private Decision decision = Decision.UNDECIDED;	// Outcome so far
+
+	/**
+	 * Creates a test with the default hypotheses and error rates
+	 */
+	public Tournament() {
+		this(DEFAULT_ELO0, DEFAULT_ELO1, DEFAULT_ALPHA, DEFAULT_BETA);
+	}
+
+	/**
+	 * Creates a test
+	 * @param double elo0 (Elo difference under H0)
+	 * @param double elo1 (Elo difference under H1, more than elo0)
+	 * @param double alpha (chance of accepting H1 when H0 is true)
+	 * @param double beta (chance of accepting H0 when H1 is true)
+	 */
+	public Tournament(double elo0, double elo1, double alpha, double beta) {
+		this.elo0 = elo0;
+		this.elo1 = elo1;
+		this.lowerBound = Math.log(beta / (1 - alpha));
+		this.upperBound = Math.log((1 - beta) / alpha);
+	}
+
+	/**
+	 * Adds a finished game and checks whether the test has been decided
+	 * @param SelfPlay.GameResult result
+	 * @param SelfPlay.Summary summary (not used; the test counts pairs itself)
+	 * @return boolean (true to keep playing)
+	 */
+	public boolean gameFinished(SelfPlay.GameResult result, SelfPlay.Summary summary) {
+		SelfPlay.GameResult partner = waiting.remove(result.number / 2);
+		if (partner == null) {
+			waiting.put(result.number / 2, result);
+			return true;
+		}
+		pairs[Tournament.points(result) + Tournament.points(partner)]++;
+		double llr = this.getLogLikelihoodRatio();
+		if (llr >= upperBound) {
+			decision = Decision.H1;
+		}
+		else if (llr <= lowerBound) {
+			decision = Decision.H0;
+		}
+		return decision == Decision.UNDECIDED;
+	}
+
+	/**
+	 * Gets engine A's points in a game, counting half points as 1
+	 * @param SelfPlay.GameResult result
+	 * @return int (0 for a loss, 1 for a draw, 2 for a win)
+	 */
+	private static int points(SelfPlay.GameResult result) {
+		return result.winner < 0 ? 1 : result.winner == 0 ? 2 : 0;
+	}
+
+	/**
+	 * Gets the number of pairs finished
+	 * @return int pairs
+	 */
+	public int getPairs() {
+		int count = 0;
+		for (int n : pairs) {
+			count += n;
+		}
+		return count;
+	}
+
+	/**
+	 * Gets engine A's share of the points in the finished pairs
+	 * @return double score (0 to 1; 0.5 before any pair is finished)
+	 */
+	public double getScore() {
+		if (this.getPairs() == 0) {
+			return 0.5;
+		}
+		double points = 0;
+		for (int i = 0; i < pairs.length; i++) {
+			points += pairs[i] * i / 4.0;
+		}
+		return points / this.getPairs();
+	}
+
+	/**
+	 * Gets the variance of a pair's score
+	 * @return double variance (0 before any pair is finished)
+	 */
+	private double pairVariance() {
+		if (this.getPairs() == 0) {
+			return 0;
+		}
+		double score = this.getScore();
+		double sum = 0;
+		for (int i = 0; i < pairs.length; i++) {
+			sum += pairs[i] * (i / 4.0 - score) * (i / 4.0 - score);
+		}
+		return sum / this.getPairs();
+	}
+
+	/**
+	 * Gets the log-likelihood ratio of H1 against H0 (the normal approximation
+	 * used for game results with draws)
+	 * @return double (0 until there is some spread in the results)
+	 */
+	public double getLogLikelihoodRatio() {
+		double variance = this.pairVariance();
+		if (this.getPairs() < 2 || variance == 0) {
+			return 0;
+		}
+		double score0 = Tournament.expectedScore(elo0);
+		double score1 = Tournament.expectedScore(elo1);
+		return this.getPairs() * (score1 - score0) * (2 * this.getScore() - score0 - score1) / (2 * variance);
+	}
+
+	/**
+	 * Gets the bounds the log-likelihood ratio must reach to decide the test
+	 * @return double [] (lower bound, upper bound)
+	 */
+	public double[] getBounds() {
+		return new double[] {lowerBound, upperBound};
+	}
+
+	/**
+	 * Gets the outcome of the test so far
+	 * @return Decision
+	 */
+	public Decision getDecision() {
+		return decision;
+	}
+
+	/**
+	 * Gets how much stronger engine A seems to be
+	 * @return double Elo difference
+	 */
+	public double getElo() {
+		return Tournament.elo(this.getScore());
+	}
+
+	/**
+	 * Gets the 95% confidence interval of the Elo difference
+	 * @return double [] (lowest and highest Elo difference; both 0 before any pair is finished)
+	 */
+	public double[] getEloInterval() {
+		if (this.getPairs() == 0) {
+			return new double[] {0, 0};
+		}
+		double error = 1.959964 * Math.sqrt(this.pairVariance() / this.getPairs());
+		return new double[] {Tournament.elo(this.getScore() - error), Tournament.elo(this.getScore() + error)};
+	}
+
+	/**
+	 * Gets the expected share of the points of a player stronger by an Elo difference
+	 * @param double elo
+	 * @return double score (0 to 1)
+	 */
+	public static double expectedScore(double elo) {
+		return 1 / (1 + Math.pow(10, -elo / 400));
+	}
+
+	/**
+	 * Gets the Elo difference that gives an expected share of the points
+	 * @param double score (0 to 1; scores of 0 and 1 are taken as just inside them)
+	 * @return double elo
+	 */
+	public static double elo(double score) {
+		score = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+		return 400 * Math.log10(score / (1 - score));
+	}
+
+	/**
+	 * Gets the state of the test as text
+	 * @return String
+	 */
+	public String toString() {
+		double[] interval = this.getEloInterval();
+		return String.format("%d pairs (%d/%d/%d/%d/%d): Elo %+.1f [%+.1f, %+.1f], LLR %.2f [%.2f, %.2f], %s",
+				this.getPairs(), pairs[0], pairs[1], pairs[2], pairs[3], pairs[4], this.getElo(), interval[0], interval[1],
+				this.getLogLikelihoodRatio(), lowerBound, upperBound,
+				decision == Decision.H1 ? "H1 accepted (A is stronger)"
+						: decision == Decision.H0 ? "H0 accepted (A is not stronger)" : "undecided");
+	}
+
+	/**
+	 * Plays a tournament and writes the games to a file
+	 * @param String [] args (engine A, engine B, most games to play, results
+	 *   file, and optionally elo0, elo1, then the number of workers, the
+	 *   openings and the seed as for SelfPlay)
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 4) {
+			System.err.println("Usage: java connect4.Tournament <engine A> <engine B> <most games> <results file> [elo0] [elo1] [workers] [opening plies | openings file] [seed]");
+			System.exit(1);
+		}
+		double elo0 = args.length > 4 ? Double.parseDouble(args[4]) : DEFAULT_ELO0;
+		double elo1 = args.length > 5 ? Double.parseDouble(args[5]) : DEFAULT_ELO1;
+		Tournament test = new Tournament(elo0, elo1, DEFAULT_ALPHA, DEFAULT_BETA);
+		SelfPlay match = new SelfPlay(EngineConfig.parse(args[0]), EngineConfig.parse(args[1]));
+		match.configure(args, 6);
+		match.setListener(test);
+		int games = Integer.parseInt(args[2]);
+		PrintWriter out = new PrintWriter(new FileWriter(args[3]));
+		GameRecordWriter records = Connect4.RECORD_FILE == null ? null : new GameRecordWriter(new File(Connect4.RECORD_FILE));
+		match.setRecordWriter(records);
+		try {
+			long start = System.nanoTime();
+			SelfPlay.Summary summary = match.run(games, out);
+			out.println("# " + test);
+			System.out.print(summary);
+			System.out.println(test);
+			System.out.printf("%d of at most %d games, %.1f s%n", summary.getGames(), games, (System.nanoTime() - start) / 1e9);
+		}
+		finally {
+			out.close();
+			if (records != null) {
+				records.close();
+			}
+		}
+	}
+} // This brace } ends the Tournament Class
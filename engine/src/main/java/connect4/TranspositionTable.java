@@ -0,0 +1,200 @@
+package connect4;
+
+/**
+ * A fixed-size transposition table for the game tree search, so a position
+ * reached by different orders of the same moves is only searched once.
+ * Entries are kept in two primitive arrays (no object per entry): the full
+ * 64-bit hash of the position, and one long packing the value, best move,
+ * bound type, depth and the search it was stored in.
+ *
+ * The search stores a position and its mirror image (flipped left to right)
+ * as one entry under Connect4Game.getCanonicalHash, so the table holds
+ * twice as many distinct positions; the stored move is then for whichever of
+ * the two has the smaller hash.
+ *
+ * When two positions want the same slot, the entry from an older search or
+ * with a shallower (or equal) depth is replaced.
+ *
+ * Several search threads can share one table without locks: the key slot
+ * holds the hash XORed with the data, so an entry that was half written by
+ * another thread does not match its hash and is treated as missing.  (The
+ * probe and hit counts are not synchronized, so they are approximate when
+ * several threads search.)
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class TranspositionTable {
+	// Bound types: how the stored value relates to the true value
+	public static final int LOWER = 1;       // True value is at least the stored value
+	public static final int UPPER = 2;       // True value is at most the stored value
+	public static final int EXACT = 3;       // Stored value is the true value
+	// Returned by probe when the position is not in the table
+	public static final long MISSING = 0;
+
+	// Bytes used by one entry (hash and data)
+	private static final int ENTRY_BYTES = 16;
+
+	// Instance variables
+	private final long [] keys;     // Hash of the position in each slot, XORed with its data
+	private final long [] data;     // Packed value, move, bound, depth and generation of each slot
+	private final int indexMask;    // Number of slots - 1 (the number of slots is a power of 2)
+	private int generation;         // Number of the current search, so old entries can be replaced
+	private long probes;            // Number of probes since the last reset of the counts
+	private long hits;              // Number of those probes that found their position
+
+	/**
+	 * Creates a table using about the given amount of memory
+	 * @param int megabytes (memory budget, at least 1)
+	 */
+	public TranspositionTable(int megabytes) {
+		// Use the largest power of 2 number of entries that fits in the budget
+		long entries = Long.highestOneBit(Math.max(1, megabytes) * (1L << 20) / ENTRY_BYTES);
+		entries = Math.min(entries, 1L << 30);
+		this.keys = new long[(int) entries];
+		this.data = new long[(int) entries];
+		this.indexMask = (int) entries - 1;
+	}
+
+	/**
+	 * Starts a new search.  Entries from earlier searches stay usable, but
+	 * are the first to be replaced.
+	 */
+	public void newSearch() {
+		this.generation = (this.generation + 1) & 0xFF;
+	}
+
+	/**
+	 * Looks a position up
+	 * @param long hash (of the position)
+	 * @return long packed entry (read with value, move, bound and depth), or MISSING
+	 */
+	public long probe(long hash) {
+		int slot = (int) hash & indexMask;
+		probes++;
+		long entry = data[slot];
+		if (entry != MISSING && (keys[slot] ^ entry) == hash) {
+			hits++;
+			return entry;
+		}
+		return MISSING;
+	}
+
+	/**
+	 * Stores the result of searching a position
+	 * @param long hash (of the position)
+	 * @param int depth (depth the position was searched to)
+	 * @param int bound (LOWER, UPPER or EXACT)
+	 * @param int value (value found for the player to move)
+	 * @param int move (best move found, or -1 if none)
+	 */
+	public void store(long hash, int depth, int bound, int value, int move) {
+		int slot = (int) hash & indexMask;
+		long old = data[slot];
+		// Keep a deeper result from this search unless it is for the same position
+		if (old != MISSING && (keys[slot] ^ old) != hash && generation(old) == generation && depth(old) > depth) {
+			return;
+		}
+		long entry = (value & 0xFFFFFFFFL)
+				| ((long) ((move + 1) & 0xF) << 32)
+				| ((long) bound << 36)
+				| ((long) (depth & 0xFF) << 38)
+				| ((long) generation << 46);
+		keys[slot] = hash ^ entry;
+		data[slot] = entry;
+	}
+
+	/**
+	 * Empties the table and resets the counts
+	 */
+	public void clear() {
+		java.util.Arrays.fill(keys, 0);
+		java.util.Arrays.fill(data, MISSING);
+		this.resetCounts();
+	}
+
+	/**
+	 * Resets the probe and hit counts
+	 */
+	public void resetCounts() {
+		probes = 0;
+		hits = 0;
+	}
+
+	/**
+	 * Gets the number of probes since the counts were reset
+	 * @return long probes
+	 */
+	public long getProbes() {
+		return probes;
+	}
+
+	/**
+	 * Gets the number of probes that found their position since the counts were reset
+	 * @return long hits
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Gets the fraction of probes that found their position
+	 * @return double hit rate (0 if there were no probes)
+	 */
+	public double getHitRate() {
+		return probes == 0 ? 0 : (double) hits / probes;
+	}
+
+	/**
+	 * Gets the number of slots in the table
+	 * @return int size
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * Gets the value out of a packed entry
+	 * @param long entry
+	 * @return int value
+	 */
+	public static int value(long entry) {
+		return (int) entry;
+	}
+
+	/**
+	 * Gets the best move out of a packed entry
+	 * @param long entry
+	 * @return int move, or -1 if none was stored
+	 */
+	public static int move(long entry) {
+		return (int) ((entry >>> 32) & 0xF) - 1;
+	}
+
+	/**
+	 * Gets the bound type out of a packed entry
+	 * @param long entry
+	 * @return int LOWER, UPPER or EXACT
+	 */
+	public static int bound(long entry) {
+		return (int) ((entry >>> 36) & 0x3);
+	}
+
+	/**
+	 * Gets the search depth out of a packed entry
+	 * @param long entry
+	 * @return int depth
+	 */
+	public static int depth(long entry) {
+		return (int) ((entry >>> 38) & 0xFF);
+	}
+
+	/**
+	 * Gets the search number out of a packed entry
+	 * @param long entry
+	 * @return int generation
+	 */
+	private static int generation(long entry) {
+		return (int) ((entry >>> 46) & 0xFF);
+	}
+}
@@ -0,0 +1,78 @@
+package connect4;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that each BatchEvaluator gives every position of a batch the score
+ * ComputerConnect4Player.staticEval gives it.  The build runs the tests with
+ * the vector module, so create() gives the SIMD evaluator.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class BatchEvaluatorTest {
+	// Random games whose positions are evaluated
+	private static final int GAMES = 500;
+
+	/**
+	 * Checks the evaluator that scores positions one at a time
+	 */
+	@Test
+	public void scalarMatchesStaticEval() {
+		this.check(BatchEvaluator.scalar());
+	}
+
+	/**
+	 * Checks the fastest evaluator, and that it is the SIMD one when the
+	 * vector module is there
+	 */
+	@Test
+	public void createdMatchesStaticEval() {
+		BatchEvaluator evaluator = BatchEvaluator.create();
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+			assertTrue(evaluator.toString().startsWith("vector"), evaluator.toString());
+		}
+		this.check(evaluator);
+	}
+
+	/**
+	 * Evaluates the positions of random games, for both players, as a whole
+	 * batch and as leftovers shorter than a vector, and checks the scores
+	 * @param BatchEvaluator evaluator
+	 */
+	private void check(BatchEvaluator evaluator) {
+		Random random = new Random(1);
+		PositionBatch batch = new PositionBatch(16);
+		int [] expected = new int[64];
+		int count = 0;
+		for (int g = 0; g < GAMES; g++) {
+			Connect4Game state = RandomGames.newGame();
+			while (true) {
+				if (count + 2 > expected.length) {
+					expected = Arrays.copyOf(expected, 2 * expected.length);
+				}
+				batch.add(state);
+				expected[count++] = ComputerConnect4Player.staticEval(state);
+				batch.add(state, 1 - state.getPlayerNum());
+				expected[count++] = ComputerConnect4Player.staticEval(state, 1 - state.getPlayerNum());
+				if (state.gameIsOver()) {
+					break;
+				}
+				state.makeMove(RandomGames.randomMove(random, state));
+			}
+		}
+		assertArrayEquals(Arrays.copyOf(expected, count), evaluator.evaluate(batch), evaluator.toString());
+		// Counts that leave positions after the last full vector, through the same evaluator
+		int [] scores = new int[count];
+		for (int n = 1; n <= 11; n++) {
+			evaluator.evaluate(batch.getMine(), batch.getTheirs(), n, scores);
+			assertArrayEquals(Arrays.copyOf(expected, n), Arrays.copyOf(scores, n), evaluator + ", " + n + " positions");
+		}
+	}
+} // This brace } ends the BatchEvaluatorTest Class
@@ -0,0 +1,65 @@
+package connect4;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the score Connect4Game keeps up to date as moves are made and
+ * taken back against ComputerConnect4Player.scanEval, which scores the
+ * board from scratch.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class Connect4GameTest {
+	// Random games played
+	private static final int GAMES = 2000;
+
+	/**
+	 * Plays random games to the end and takes every move back, checking both
+	 * players' running scores after each move, after each take-back, and in a
+	 * copy of the game made from its board
+	 */
+	@Test
+	public void runningScoreMatchesScan() {
+		Random random = new Random(11);
+		for (int g = 0; g < GAMES; g++) {
+			Connect4Game state = RandomGames.newGame();
+			Deque<Integer> moves = new ArrayDeque<Integer>();
+			while (true) {
+				this.checkScores(state, "game " + g + " at ply " + moves.size());
+				Connect4Game copy = new Connect4Game(state.getPlayerNum(), null, state.getBoardArray());
+				for (int playerNum = 0; playerNum < 2; playerNum++) {
+					assertEquals(state.getScore(playerNum), copy.getScore(playerNum), "copy of game " + g);
+				}
+				if (state.gameIsOver()) {
+					break;
+				}
+				int col = RandomGames.randomMove(random, state);
+				state.makeMove(col);
+				moves.push(col);
+			}
+			while (!moves.isEmpty()) {
+				state.undoMove(moves.pop());
+				this.checkScores(state, "game " + g + " taken back to ply " + moves.size());
+			}
+		}
+	}
+
+	/**
+	 * Checks both players' running scores against a full scan of the board
+	 * @param Connect4Game state
+	 * @param String where (for the failure message)
+	 */
+	private void checkScores(Connect4Game state, String where) {
+		for (int playerNum = 0; playerNum < 2; playerNum++) {
+			assertEquals(ComputerConnect4Player.scanEval(state, playerNum), state.getScore(playerNum),
+					"player " + playerNum + ", " + where);
+		}
+	}
+} // This brace } ends the Connect4GameTest Class
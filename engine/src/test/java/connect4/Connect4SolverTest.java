@@ -0,0 +1,78 @@
+package connect4;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks Connect4Solver against a plain negamax search (no move ordering,
+ * table or null windows) on random positions near the end of the game,
+ * where the plain search is fast enough to finish.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class Connect4SolverTest {
+	// Random positions solved, and the empty spots each has
+	private static final int POSITIONS = 150;
+	private static final int EMPTIES = 16;
+
+	/**
+	 * Solves random positions both ways, and checks that the weak solve gives
+	 * the sign of the exact score
+	 */
+	@Test
+	public void solverMatchesBruteForce() {
+		Random random = new Random(5);
+		Connect4Solver solver = new Connect4Solver(16);
+		int solved = 0;
+		while (solved < POSITIONS) {
+			Connect4Game state = RandomGames.newGame();
+			RandomGames.play(random, state, Connect4Position.SPOTS - EMPTIES);
+			if (state.gameIsOver()) {
+				continue;
+			}
+			Connect4Position position = new Connect4Position(state);
+			if (position.canWinNext()) {
+				continue;
+			}
+			int expected = Connect4SolverTest.negamax(position, -Connect4Position.SPOTS, Connect4Position.SPOTS);
+			assertEquals(expected, solver.solve(position), "position " + solved);
+			assertEquals(Integer.signum(expected), solver.solve(position, true), "weak solve of position " + solved);
+			solved++;
+		}
+	}
+
+	/**
+	 * Scores a position by searching every line to the end: positive if the
+	 * player to move wins (the sooner, the higher), negative if they lose, 0
+	 * for a draw (the solver's scores)
+	 * @param Connect4Position position
+	 * @param int alpha
+	 * @param int beta
+	 * @return int score
+	 */
+	private static int negamax(Connect4Position position, int alpha, int beta) {
+		if (position.getMoves() == Connect4Position.SPOTS) {
+			return 0;
+		}
+		for (int col = 0; col < Connect4State.COLS; col++) {
+			if (position.canPlay(col) && position.isWinningMove(col)) {
+				return (Connect4Position.SPOTS + 1 - position.getMoves()) / 2;
+			}
+		}
+		int best = -Connect4Position.SPOTS;
+		for (int col = 0; col < Connect4State.COLS && alpha < beta; col++) {
+			if (position.canPlay(col)) {
+				Connect4Position next = new Connect4Position(position);
+				next.play(col);
+				int score = -Connect4SolverTest.negamax(next, -beta, -alpha);
+				best = Math.max(best, score);
+				alpha = Math.max(alpha, score);
+			}
+		}
+		return best;
+	}
+} // This brace } ends the Connect4SolverTest Class
@@ -0,0 +1,48 @@
+package connect4;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the table setting of a spec reaches the player it makes: the
+ * default table if there is no setting, and no table for table=0.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class EngineConfigTest {
+	/**
+	 * Searches the empty board with players made with and without a table
+	 */
+	@Test
+	public void tableZeroSearchesWithoutTable() {
+		assertTrue(EngineConfigTest.tableProbes("computer:depth=6") > 0);
+		assertTrue(EngineConfigTest.tableProbes("computer:depth=6,table=1") > 0);
+		assertEquals(0, EngineConfigTest.tableProbes("computer:depth=6,table=0"));
+	}
+
+	/**
+	 * Reads specs with tables a player cannot have
+	 */
+	@Test
+	public void impossibleTablesRejected() {
+		for (String spec : new String[] {"computer:table=-1", "solver:table=0"}) {
+			assertThrows(IllegalArgumentException.class, () -> EngineConfig.parse(spec), spec);
+		}
+	}
+
+	/**
+	 * Has a player made from a spec move from the empty board
+	 * @param String spec (of a computer player)
+	 * @return long (positions looked up in its transposition table)
+	 */
+	private static long tableProbes(String spec) {
+		ComputerConnect4Player player = (ComputerConnect4Player) EngineConfig.parse(spec).createPlayer("computer", null, null);
+		Connect4Game state = new Connect4Game(0, new Player[] {player, player}, new NullConnect4View());
+		player.getMove(state, new NullConnect4View());
+		return player.getSearchStats().getTableProbes();
+	}
+} // This brace } ends the EngineConfigTest Class
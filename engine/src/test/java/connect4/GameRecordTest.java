@@ -0,0 +1,192 @@
+package connect4;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that games written by GameRecordWriter are read back unchanged by
+ * GameRecordReader, and that damaged files are reported as IOExceptions.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class GameRecordTest {
+	// Random games written
+	private static final int GAMES = 1000;
+
+	// Players the games are between, so some records repeat or swap the last players
+	private static final String [] NAMES = {"computer:depth=8", "mcts:iterations=20000", "Ünïcode player", ""};
+
+	// A directory for the test to write files in
+	@TempDir
+	File directory;
+
+	/**
+	 * Writes random games to a stream and reads them back
+	 * @throws IOException
+	 */
+	@Test
+	public void roundTrip() throws IOException {
+		List<GameRecord> games = GameRecordTest.randomGames(new Random(3), GAMES);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		GameRecordWriter out = new GameRecordWriter(bytes);
+		for (GameRecord game : games) {
+			out.write(game);
+		}
+		out.close();
+		assertEquals(GAMES, out.getCount());
+		GameRecordReader in = new GameRecordReader(new ByteArrayInputStream(bytes.toByteArray()));
+		for (int g = 0; g < GAMES; g++) {
+			GameRecordTest.assertSameGame(games.get(g), in.read(), "game " + g);
+		}
+		assertNull(in.read());
+		assertEquals(GAMES, in.getCount());
+		in.close();
+	}
+
+	/**
+	 * Adds games to a file with two writers, one after the other, and reads them back
+	 * @throws IOException
+	 */
+	@Test
+	public void appendToFile() throws IOException {
+		File file = new File(directory, "games.c4g");
+		List<GameRecord> games = GameRecordTest.randomGames(new Random(4), 20);
+		for (int half = 0; half < 2; half++) {
+			GameRecordWriter out = new GameRecordWriter(file);
+			for (GameRecord game : games.subList(10 * half, 10 * half + 10)) {
+				out.write(game);
+			}
+			out.close();
+		}
+		assertTrue(GameRecordReader.isRecordFile(file));
+		GameRecordReader in = new GameRecordReader(file);
+		for (int g = 0; g < games.size(); g++) {
+			GameRecordTest.assertSameGame(games.get(g), in.read(), "game " + g);
+		}
+		assertNull(in.read());
+		in.close();
+	}
+
+	/**
+	 * Reads files that are cut off or have a corrupt record length or field
+	 * @throws IOException
+	 */
+	@Test
+	public void damagedFiles() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		GameRecordWriter out = new GameRecordWriter(bytes);
+		out.write(GameRecordTest.randomGames(new Random(5), 1).get(0));
+		out.close();
+		byte [] file = bytes.toByteArray();
+		// Cut off in the middle of the record
+		GameRecordReader in = new GameRecordReader(new ByteArrayInputStream(Arrays.copyOf(file, file.length - 3)));
+		assertThrows(IOException.class, in::read);
+		// Record lengths far beyond any record, and beyond an int
+		for (byte [] length : new byte[][] {{(byte) 0xFF, (byte) 0xFF, 0x7F}, {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F}}) {
+			byte [] corrupt = Arrays.copyOf(file, 8 + length.length);
+			System.arraycopy(length, 0, corrupt, 8, length.length);
+			GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(corrupt));
+			assertThrows(IOException.class, reader::read);
+		}
+		// Records with a name's size, a depth or the move count beyond an int, or a move's time beyond a long
+		int more = 0xFF;	// A varint byte with all its bits set, and more bytes to come
+		int [][] records = {{0, more, more, more, more, 0x0F}, {0, 0, 0, more, more, more, more, 0x0F, 0, 0},
+				{0, 0, 0, 0, 0, more, more, more, more, 0x0F},
+				{GameRecordWriter.HAS_TIMES, 0, 0, 0, 0, 1, 3, more, more, more, more, more, more, more, more, more, 1}};
+		for (int [] record : records) {
+			byte [] corrupt = Arrays.copyOf(file, 8 + 1 + record.length);
+			corrupt[8] = (byte) record.length;
+			for (int i = 0; i < record.length; i++) {
+				corrupt[9 + i] = (byte) record[i];
+			}
+			GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(corrupt));
+			assertThrows(IOException.class, reader::read, Arrays.toString(record));
+		}
+		// Not a game record file at all
+		assertThrows(IOException.class, () -> new GameRecordReader(new ByteArrayInputStream(new byte[] {'C', '4'})));
+	}
+
+	/**
+	 * Writes a game with a player's name too long for a record
+	 * @throws IOException
+	 */
+	@Test
+	public void longNameRejected() throws IOException {
+		char [] name = new char[GameRecordWriter.MAX_NAME_BYTES + 1];
+		Arrays.fill(name, 'x');
+		GameRecord game = new GameRecord(new String[] {new String(name), "other"}, new int[] {0, 0},
+				GameRecord.UNFINISHED, new byte[0], null);
+		GameRecordWriter out = new GameRecordWriter(new ByteArrayOutputStream());
+		assertThrows(IOException.class, () -> out.write(game));
+		out.close();
+	}
+
+	/**
+	 * Plays random games (see RandomGames.game) between the players in NAMES,
+	 * some with move times
+	 * @param Random random
+	 * @param int count
+	 * @return List<GameRecord> games
+	 */
+	private static List<GameRecord> randomGames(Random random, int count) {
+		List<GameRecord> games = new ArrayList<GameRecord>();
+		for (int g = 0; g < count; g++) {
+			Connect4Game state = RandomGames.newGame();
+			byte [] moves = RandomGames.game(random, state);
+			long [] micros = null;
+			if (random.nextBoolean()) {
+				micros = new long[moves.length];
+				for (int ply = 0; ply < micros.length; ply++) {
+					micros[ply] = random.nextInt(4) == 0 ? random.nextLong() >>> 1 : random.nextInt(100000);
+				}
+			}
+			// Mostly the first two players, in either seat, sometimes others
+			int first = random.nextInt(4) == 0 ? random.nextInt(NAMES.length) : random.nextInt(2);
+			int second = first < 2 && random.nextInt(4) != 0 ? 1 - first : (first + 2) % NAMES.length;
+			games.add(new GameRecord(new String[] {NAMES[first], NAMES[second]}, new int[] {first * 300, second},
+					GameRecord.result(state), moves, micros));
+		}
+		return games;
+	}
+
+	/**
+	 * Checks that a game was read back as it was written
+	 * @param GameRecord expected
+	 * @param GameRecord actual
+	 * @param String message
+	 */
+	private static void assertSameGame(GameRecord expected, GameRecord actual, String message) {
+		for (int playerNum = 0; playerNum < 2; playerNum++) {
+			assertEquals(expected.getPlayer(playerNum), actual.getPlayer(playerNum), message);
+			assertEquals(expected.getDepth(playerNum), actual.getDepth(playerNum), message);
+		}
+		assertEquals(expected.getResult(), actual.getResult(), message);
+		assertEquals(expected.getMoves(), actual.getMoves(), message);
+		assertEquals(expected.hasMoveTimes(), actual.hasMoveTimes(), message);
+		if (expected.hasMoveTimes()) {
+			long [] expectedMicros = new long[expected.getMoveCount()];
+			long [] actualMicros = new long[actual.getMoveCount()];
+			for (int ply = 0; ply < expected.getMoveCount(); ply++) {
+				expectedMicros[ply] = expected.getMoveMicros(ply);
+				actualMicros[ply] = actual.getMoveMicros(ply);
+			}
+			assertArrayEquals(expectedMicros, actualMicros, message);
+		}
+	}
+} // This brace } ends the GameRecordTest Class
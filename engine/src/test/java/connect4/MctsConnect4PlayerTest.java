@@ -0,0 +1,65 @@
+package connect4;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that a Monte Carlo player always plays a valid move, even when it
+ * plays no games or its tree has no room to grow past the root.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class MctsConnect4PlayerTest {
+	/**
+	 * Plays a move with no games
+	 */
+	@Test
+	public void noGamesPlaysValidMoves() {
+		MctsConnect4Player player = new MctsConnect4Player("mcts", MctsConnect4Player.MIN_NODES);
+		player.setIterations(0);
+		this.checkMoves(player);
+	}
+
+	/**
+	 * Plays moves with a tree that only has room for the root and its children
+	 */
+	@Test
+	public void smallestTreePlaysValidMoves() {
+		MctsConnect4Player player = new MctsConnect4Player("mcts", MctsConnect4Player.MIN_NODES);
+		player.setIterations(200);
+		this.checkMoves(player);
+	}
+
+	/**
+	 * Reads specs that would give a player no games or no tree
+	 */
+	@Test
+	public void specsWithoutGamesOrTreeRejected() {
+		for (String spec : new String[] {"mcts:iterations=0", "mcts:iterations=-5", "mcts:nodes=0", "mcts:nodes=7"}) {
+			assertThrows(IllegalArgumentException.class, () -> EngineConfig.parse(spec), spec);
+		}
+		assertThrows(IllegalArgumentException.class, () -> new MctsConnect4Player("mcts", 0));
+	}
+
+	/**
+	 * Has the player move in the positions of random games, where its moves are played
+	 * @param MctsConnect4Player player
+	 */
+	private void checkMoves(MctsConnect4Player player) {
+		Random random = new Random(6);
+		for (int g = 0; g < 20; g++) {
+			Connect4Game state = new Connect4Game(0, new Player[] {player, player}, new NullConnect4View());
+			while (!state.gameIsOver()) {
+				int move = player.getMove(state, new NullConnect4View());
+				assertTrue(move >= 0 && move < Connect4State.COLS && state.isValidMove(move), "move " + move);
+				// Every other move is random, so the tree is sometimes kept and sometimes not
+				state.makeMove(state.getMoveCount() % 2 == 0 ? move : RandomGames.randomMove(random, state));
+			}
+		}
+	}
+} // This brace } ends the MctsConnect4PlayerTest Class
@@ -0,0 +1,59 @@
+package connect4;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the move makers by counting the positions at the end of every line
+ * of play (see Perft) from the empty board, against the known counts, and
+ * checks that both move makers agree from a position with wins on the way.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class PerftTest {
+	// Positions after each number of moves from the empty board (a game won on the way ends its line)
+	private static final long [] COUNTS = {1, 7, 49, 343, 2401, 16807, 117649, 823536, 5686266, 39452034, 269175990};
+
+	// Deepest counts checked with the game state, which is much slower than the bitboards
+	private static final int GAME_DEPTH = 7;
+
+	/**
+	 * Counts from the empty board with bitboards
+	 */
+	@Test
+	public void bitboardCountsFromEmptyBoard() {
+		for (int depth = 0; depth < COUNTS.length; depth++) {
+			assertEquals(COUNTS[depth], Perft.perft(new Connect4Position(), depth), "depth " + depth);
+		}
+	}
+
+	/**
+	 * Counts from the empty board with the game state
+	 */
+	@Test
+	public void gameCountsFromEmptyBoard() {
+		Connect4Game state = RandomGames.newGame();
+		for (int depth = 0; depth <= GAME_DEPTH; depth++) {
+			assertEquals(COUNTS[depth], Perft.perft(state, depth), "depth " + depth);
+		}
+	}
+
+	/**
+	 * Counts with both from a position where many lines soon end in a win
+	 */
+	@Test
+	public void moveMakersAgreeWithWinsOnTheWay() {
+		String moves = "33442";
+		Connect4Game state = RandomGames.newGame();
+		Connect4Position position = new Connect4Position();
+		for (char digit : moves.toCharArray()) {
+			state.makeMove(digit - '0');
+			position.play(digit - '0');
+		}
+		for (int depth = 1; depth <= 6; depth++) {
+			assertEquals(Perft.perft(state, depth), Perft.perft(position, depth), "depth " + depth);
+		}
+	}
+} // This brace } ends the PerftTest Class
@@ -0,0 +1,206 @@
+package connect4;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks a PositionIndex against counts made by replaying every game: the
+ * move statistics and games of every position reached, after loading with
+ * several workers into many small segments (so the smallest are merged),
+ * after reopening, and after merging everything into one segment.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class PositionIndexTest {
+	// Random games indexed (enough runs that segments are merged while loading)
+	private static final int GAMES = 3000;
+
+	// A directory for the test to write files in
+	@TempDir
+	File directory;
+
+	/**
+	 * Loads random games and checks every position they reached
+	 * @throws IOException
+	 */
+	@Test
+	public void indexMatchesBruteForce() throws IOException {
+		List<GameRecord> games = RandomGames.records(new Random(7), GAMES);
+		File records = this.writeGames(games, "games.c4g");
+		File indexDirectory = new File(directory, "index");
+		PositionIndex index = new PositionIndex(indexDirectory);
+		index.setSegmentPostings(1);
+		GameRecordReader in = new GameRecordReader(records);
+		assertEquals(GAMES, index.load(in, 3));
+		in.close();
+		assertEquals(GAMES, index.getGameCount());
+		assertTrue(index.getSegmentCount() <= PositionIndex.MAX_SEGMENTS, index.getSegmentCount() + " segments");
+		// Count what the index should hold
+		Map<Long, int[][]> stats = new HashMap<Long, int[][]>();
+		Map<Long, List<Integer>> postings = new HashMap<Long, List<Integer>>();
+		List<Connect4Position> positions = new ArrayList<Connect4Position>();
+		for (int g = 0; g < games.size(); g++) {
+			GameRecord game = games.get(g);
+			Connect4Position position = new Connect4Position();
+			for (int ply = 0; ply <= game.getMoveCount(); ply++) {
+				long key = PositionIndex.canonicalKey(position);
+				List<Integer> reached = postings.get(key);
+				if (reached == null) {
+					reached = new ArrayList<Integer>();
+					postings.put(key, reached);
+					positions.add(new Connect4Position(position));
+				}
+				reached.add(g);
+				if (ply == game.getMoveCount()) {
+					break;
+				}
+				int outcome = PositionIndex.outcome(game.getResult(), ply);
+				if (outcome >= 0) {
+					int [][] moveStats = stats.computeIfAbsent(key, k -> new int[Connect4State.COLS][3]);
+					moveStats[PositionIndex.canonicalMove(position, game.getMove(ply))][outcome]++;
+				}
+				position.play(game.getMove(ply));
+			}
+		}
+		this.check(index, positions, stats, postings);
+		this.check(new PositionIndex(indexDirectory), positions, stats, postings);
+		index.merge();
+		assertEquals(1, index.getSegmentCount());
+		this.check(index, positions, stats, postings);
+		this.check(new PositionIndex(indexDirectory), positions, stats, postings);
+	}
+
+	/**
+	 * Loads the same games twice, in two loads, and checks that the counts double
+	 * @throws IOException
+	 */
+	@Test
+	public void appendAddsGames() throws IOException {
+		File records = this.writeGames(RandomGames.records(new Random(8), 300), "games.c4g");
+		PositionIndex index = new PositionIndex(new File(directory, "index"));
+		int [][] once = null;
+		for (int load = 1; load <= 2; load++) {
+			GameRecordReader in = new GameRecordReader(records);
+			index.load(in, 2);
+			in.close();
+			if (once == null) {
+				once = index.getMoveStats(new Connect4Position());
+			}
+		}
+		assertEquals(600, index.getGameCount());
+		int [][] twice = index.getMoveStats(new Connect4Position());
+		for (int col = 0; col < Connect4State.COLS; col++) {
+			for (int outcome = 0; outcome < 3; outcome++) {
+				assertEquals(2 * once[col][outcome], twice[col][outcome]);
+			}
+		}
+		int [] games = index.getGames(new Connect4Position(), Integer.MAX_VALUE);
+		assertEquals(600, games.length);
+		assertEquals(599, games[599]);
+	}
+
+	/**
+	 * Loads games where one has an invalid move, and checks that every game
+	 * before it is kept
+	 * @throws IOException
+	 */
+	@Test
+	public void gamesBeforeInvalidGameAreKept() throws IOException {
+		List<GameRecord> games = RandomGames.records(new Random(9), 600);
+		// Seven checkers in one column
+		games.set(300, new GameRecord(new String[] {"A", "B"}, new int[] {0, 0}, GameRecord.DRAW, new byte[7], null));
+		File records = this.writeGames(games, "games.c4g");
+		File indexDirectory = new File(directory, "index");
+		PositionIndex index = new PositionIndex(indexDirectory);
+		GameRecordReader in = new GameRecordReader(records);
+		assertThrows(IOException.class, () -> index.load(in, 2));
+		in.close();
+		assertEquals(300, index.getGameCount());
+		assertEquals(300, new PositionIndex(indexDirectory).getGameCount());
+		assertEquals(300, index.getGames(new Connect4Position(), Integer.MAX_VALUE).length);
+	}
+
+	/**
+	 * Picks the best move from the empty board among those played in enough games
+	 * @throws IOException
+	 */
+	@Test
+	public void bestMoveNeedsEnoughGames() throws IOException {
+		List<GameRecord> games = new ArrayList<GameRecord>();
+		// Column 1 won its only game; column 3 won two of three; column 0 lost both
+		int [][] lines = {{1, 1, 2, 2, 3, 3, 4}, {3, 0, 3, 0, 3, 0, 3}, {3, 0, 3, 0, 3, 0, 3}, {3, 0, 3, 0, 3, 0, 4, 0},
+				{0, 3, 0, 3, 0, 3, 4, 3}, {0, 3, 0, 3, 0, 3, 1, 3}};
+		for (int [] line : lines) {
+			Connect4Game state = RandomGames.newGame();
+			byte [] moves = new byte[line.length];
+			for (int ply = 0; ply < line.length; ply++) {
+				state.makeMove(line[ply]);
+				moves[ply] = (byte) line[ply];
+			}
+			games.add(new GameRecord(new String[] {"A", "B"}, new int[] {0, 0}, GameRecord.result(state), moves, null));
+		}
+		PositionIndex index = new PositionIndex(new File(directory, "index"));
+		GameRecordReader in = new GameRecordReader(this.writeGames(games, "games.c4g"));
+		index.load(in, 1);
+		in.close();
+		Connect4Position empty = new Connect4Position();
+		assertEquals(1, index.getBestMove(empty, 1));
+		assertEquals(3, index.getBestMove(empty, 2));
+		assertEquals(-1, index.getBestMove(empty, 4));
+	}
+
+	/**
+	 * Checks the index against the counts, for every position reached
+	 * @param PositionIndex index
+	 * @param List<Connect4Position> positions
+	 * @param Map<Long, int[][]> stats (by canonical key, with canonical moves)
+	 * @param Map<Long, List<Integer>> postings (by canonical key)
+	 */
+	private void check(PositionIndex index, List<Connect4Position> positions, Map<Long, int[][]> stats,
+			Map<Long, List<Integer>> postings) {
+		for (Connect4Position position : positions) {
+			long key = PositionIndex.canonicalKey(position);
+			int [][] expected = stats.getOrDefault(key, new int[Connect4State.COLS][3]);
+			int [][] actual = index.getMoveStats(position);
+			for (int col = 0; col < Connect4State.COLS; col++) {
+				// The index gives the moves of the position asked about, the counts are by canonical move
+				int canonical = PositionIndex.canonicalMove(position, col);
+				boolean kept = canonical == col || Connect4Position.mirror(position.key()) != position.key();
+				assertArrayEquals(kept ? expected[canonical] : new int[3], actual[col], "key " + key + ", column " + col);
+			}
+			int [] games = postings.get(key).stream().mapToInt(Integer::intValue).toArray();
+			assertArrayEquals(games, index.getGames(position, Integer.MAX_VALUE), "key " + key);
+		}
+	}
+
+	/**
+	 * Writes games to a game record file
+	 * @param List<GameRecord> games
+	 * @param String name
+	 * @return File
+	 * @throws IOException
+	 */
+	private File writeGames(List<GameRecord> games, String name) throws IOException {
+		File file = new File(directory, name);
+		GameRecordWriter out = new GameRecordWriter(file);
+		for (GameRecord game : games) {
+			out.write(game);
+		}
+		out.close();
+		return file;
+	}
+} // This brace } ends the PositionIndexTest Class
@@ -0,0 +1,92 @@
+package connect4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Random games for the tests: a game with no players and a view that shows
+ * nothing, played on with random valid moves.  The first moves are in the
+ * middle three columns, so games share their first positions.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+final class RandomGames {
+	// Moves at the start of a game that are in the middle three columns
+	static final int OPENING_PLIES = 6;
+
+	/**
+	 * Not created: only has static methods
+	 */
+	private RandomGames() {
+	}
+
+	/**
+	 * Creates a game at the empty board
+	 * @return Connect4Game
+	 */
+	static Connect4Game newGame() {
+		return new Connect4Game(0, new Player[2], new NullConnect4View());
+	}
+
+	/**
+	 * Picks a random valid move
+	 * @param Random random
+	 * @param Connect4Game state (not over)
+	 * @return int column
+	 */
+	static int randomMove(Random random, Connect4Game state) {
+		int col;
+		do {
+			col = state.getMoveCount() < OPENING_PLIES ? 2 + random.nextInt(3) : random.nextInt(Connect4State.COLS);
+		} while (!state.isValidMove(col));
+		return col;
+	}
+
+	/**
+	 * Makes random moves until the game is over or has a number of moves
+	 * @param Random random
+	 * @param Connect4Game state
+	 * @param int stop (number of moves to stop at)
+	 * @return byte [] (the columns of the moves made)
+	 */
+	static byte[] play(Random random, Connect4Game state, int stop) {
+		byte [] moves = new byte[Connect4Position.SPOTS];
+		int plies = 0;
+		while (!state.gameIsOver() && state.getMoveCount() < stop) {
+			int col = RandomGames.randomMove(random, state);
+			state.makeMove(col);
+			moves[plies++] = (byte) col;
+		}
+		return Arrays.copyOf(moves, plies);
+	}
+
+	/**
+	 * Plays a random game, one in four stopped before the end
+	 * @param Random random
+	 * @param Connect4Game state (at the empty board)
+	 * @return byte [] (the columns of the moves made)
+	 */
+	static byte[] game(Random random, Connect4Game state) {
+		int stop = random.nextInt(4) == 0 ? random.nextInt(Connect4Position.SPOTS) : Connect4Position.SPOTS;
+		return RandomGames.play(random, state, stop);
+	}
+
+	/**
+	 * Plays random games between players A and B as records
+	 * @param Random random
+	 * @param int count
+	 * @return List<GameRecord> games
+	 */
+	static List<GameRecord> records(Random random, int count) {
+		List<GameRecord> games = new ArrayList<GameRecord>();
+		for (int g = 0; g < count; g++) {
+			Connect4Game state = RandomGames.newGame();
+			byte [] moves = RandomGames.game(random, state);
+			games.add(new GameRecord(new String[] {"A", "B"}, new int[] {0, 0}, GameRecord.result(state), moves, null));
+		}
+		return games;
+	}
+} // This brace } ends the RandomGames Class
@@ -0,0 +1,56 @@
+package connect4;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that a helper worker of the parallel search (see
+ * ComputerConnect4Player.setThreads) keeps the depth it starts its iterative
+ * deepening at from move to move.
+ *
+ * @author Etai Klein & Katie Lachance
+ *
+ */
+public class SearchWorkerTest {
+	// Moves of a game searched, each after getting the workers ready again
+	private static final int MOVES = 6;
+
+	/**
+	 * Searches the positions of a random game with a worker that starts at
+	 * depth 2, as every other helper does, and with one that starts at depth
+	 * 1: with a horizon of 1 the helper finishes only depth 0, and with a
+	 * horizon of 2 its first search after depth 0 is at depth 2
+	 */
+	@Test
+	public void helperStartsAtDepthTwoOnEveryMove() {
+		SearchWorker helper = new SearchWorker(null);
+		helper.setFirstDepth(2);
+		SearchWorker main = new SearchWorker(null);
+		Random random = new Random(2);
+		Connect4Game state = RandomGames.newGame();
+		for (int move = 0; move < MOVES; move++) {
+			helper.prepare(new Connect4Game(state), 1, SearchAlgorithm.ALPHA_BETA, 0, 0);
+			helper.searchIteratively();
+			assertEquals(0, helper.getCompletedDepth(), "helper, move " + move);
+			main.prepare(new Connect4Game(state), 1, SearchAlgorithm.ALPHA_BETA, 0, 0);
+			main.searchIteratively();
+			assertEquals(1, main.getCompletedDepth(), "main worker, move " + move);
+			// Depth 2 alone searches the same tree as the helper's search after depth 0
+			helper.prepare(new Connect4Game(state), 2, SearchAlgorithm.ALPHA_BETA, 0, 0);
+			helper.searchIteratively();
+			assertEquals(2, helper.getCompletedDepth(), "helper, move " + move);
+			long iterated = helper.getNodeCount();
+			SearchWorker direct = new SearchWorker(null);
+			direct.prepare(new Connect4Game(state), 0, SearchAlgorithm.ALPHA_BETA, 0, 0);
+			direct.searchToHorizon();
+			long depthZero = direct.getNodeCount();
+			direct.prepare(new Connect4Game(state), 2, SearchAlgorithm.ALPHA_BETA, 0, 0);
+			direct.searchToHorizon();
+			assertEquals(depthZero + direct.getNodeCount(), iterated, "helper, move " + move);
+			state.makeMove(RandomGames.randomMove(random, state));
+		}
+	}
+} // This brace } ends the SearchWorkerTest Class